@@ -0,0 +1,111 @@
+#!/bin/bash
+
+# Startup measurement for the Java services
+# For each service image, starts containers with and without the AppCDS archive and records
+# the JVM/Spring startup time ("Started ... in N seconds") and the wall-clock time until the
+# first successful request to /actuator/health.
+#
+# Example:
+#   DOCKER_RUN_ARGS="--network ecommerce-network -e REDIS_HOST=redis" \
+#   SERVICES="users products" RUNS=5 ./scripts/startup-benchmark.sh
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_step() {
+    echo -e "${BLUE}[STEP]${NC} $1"
+}
+
+print_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+print_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+# Configuration
+SERVICES=${SERVICES:-"users products orders payment"}
+IMAGE_PREFIX=${IMAGE_PREFIX:-ecommerce}
+IMAGE_TAG=${IMAGE_TAG:-startup-bench}
+RUNS=${RUNS:-5}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+DOCKER_RUN_ARGS=${DOCKER_RUN_ARGS:-}
+SKIP_BUILD=${SKIP_BUILD:-false}
+RESULTS_DIR=${RESULTS_DIR:-benchmark-results/startup-$(date +%Y%m%d-%H%M%S)}
+
+command -v docker >/dev/null 2>&1 || { print_error "Docker not found. Please install it first."; exit 1; }
+
+mkdir -p "$RESULTS_DIR"
+
+now_millis() {
+    date +%s%3N
+}
+
+# Prints "<spring startup seconds> <time to first request seconds>" for one container run
+measure() {
+    local image=$1
+    local mode=$2
+    local name="startup-bench-$$-$RANDOM"
+    local port=$((20000 + RANDOM % 10000))
+
+    local start
+    start=$(now_millis)
+    if [ "$mode" = "baseline" ]; then
+        # Same extracted jar, without -XX:SharedArchiveFile (only the JDK's default CDS archive)
+        # shellcheck disable=SC2086
+        docker run -d --name "$name" -p "$port:8080" $DOCKER_RUN_ARGS --entrypoint java "$image" \
+            -jar extracted/app.jar > /dev/null
+    else
+        # shellcheck disable=SC2086
+        docker run -d --name "$name" -p "$port:8080" $DOCKER_RUN_ARGS "$image" > /dev/null
+    fi
+
+    local ready=""
+    while [ $(( ($(now_millis) - start) / 1000 )) -lt "$TIMEOUT_SECONDS" ]; do
+        if curl -sf "http://localhost:$port/actuator/health" > /dev/null 2>&1; then
+            ready=$(now_millis)
+            break
+        fi
+        sleep 0.1
+    done
+
+    local started
+    started=$(docker logs "$name" 2>&1 | sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' | head -1)
+    docker rm -f "$name" > /dev/null
+
+    if [ -z "$ready" ]; then
+        echo "${started:-n/a} timeout"
+    else
+        echo "${started:-n/a} $(awk -v ms=$((ready - start)) 'BEGIN {printf "%.2f", ms / 1000}')"
+    fi
+}
+
+summary="$RESULTS_DIR/summary.md"
+{
+    echo "| Service | Mode | Run | Spring startup (s) | First request (s) |"
+    echo "|---|---|---:|---:|---:|"
+} > "$summary"
+
+for service in $SERVICES; do
+    image="$IMAGE_PREFIX/$service:$IMAGE_TAG"
+    if [ "$SKIP_BUILD" != "true" ]; then
+        print_step "Building $image..."
+        docker build -q -t "$image" "services/$service" > /dev/null
+    fi
+
+    for mode in baseline appcds; do
+        for run in $(seq 1 "$RUNS"); do
+            print_step "$service, $mode, run $run/$RUNS..."
+            read -r started first_request < <(measure "$image" "$mode")
+            echo "| $service | $mode | $run | $started | $first_request |" >> "$summary"
+        done
+    done
+done
+
+print_success "Summary written to $summary"
+cat "$summary"
@@ -0,0 +1,87 @@
+#!/bin/bash
+
+# Virtual-thread vs platform-thread load comparison
+# Runs the same load against two instances of a service, one started with
+# <service>.virtual-threads.enabled=false and one with it set to true, and prints
+# throughput and p99 latency for each concurrency level.
+#
+# Example:
+#   PLATFORM_URL=http://localhost:8081 VIRTUAL_URL=http://localhost:8091 \
+#   BENCH_PATH="/api/users/export?role=ADMIN" ./scripts/virtual-thread-benchmark.sh
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_step() {
+    echo -e "${BLUE}[STEP]${NC} $1"
+}
+
+print_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+print_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+# Configuration
+PLATFORM_URL=${PLATFORM_URL:-http://localhost:8081}
+VIRTUAL_URL=${VIRTUAL_URL:-http://localhost:8091}
+# Should hit an endpoint that blocks on DynamoDB; a health check measures nothing useful
+BENCH_PATH=${BENCH_PATH:-/api/users/export?role=ADMIN}
+CONCURRENCY_LEVELS=${CONCURRENCY_LEVELS:-"50 200 800 2000"}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-15s}
+RESULTS_DIR=${RESULTS_DIR:-benchmark-results/virtual-threads-$(date +%Y%m%d-%H%M%S)}
+
+command -v hey >/dev/null 2>&1 || { print_error "hey not found. Install it with 'go install github.com/rakyll/hey@latest'."; exit 1; }
+
+mkdir -p "$RESULTS_DIR"
+
+# Prints "<requests/sec> <p99 seconds> <non-2xx responses>" for one run
+run_load() {
+    local url=$1
+    local concurrency=$2
+    local output=$3
+
+    hey -z "$DURATION" -c "$concurrency" "$url" > "$output"
+
+    local rps p99 errors
+    rps=$(awk '/Requests\/sec:/ {print $2}' "$output")
+    p99=$(awk '/ 99% in / {print $3}' "$output")
+    errors=$(awk '/^[ \t]+\[[0-9]+\]/ && $1 !~ /\[2[0-9][0-9]\]/ {sum += $2} END {print sum + 0}' "$output")
+    echo "$rps $p99 $errors"
+}
+
+for mode in platform virtual; do
+    base_url=$PLATFORM_URL
+    [ "$mode" = "virtual" ] && base_url=$VIRTUAL_URL
+
+    curl -sf "$base_url/actuator/health" > /dev/null || { print_error "$mode instance at $base_url is not healthy"; exit 1; }
+    print_step "Warming up $mode instance for $WARMUP..."
+    hey -z "$WARMUP" -c 50 "$base_url$BENCH_PATH" > /dev/null
+done
+
+summary="$RESULTS_DIR/summary.md"
+{
+    echo "| Concurrency | Mode | Requests/sec | p99 (s) | Non-2xx |"
+    echo "|---:|---|---:|---:|---:|"
+} > "$summary"
+
+for concurrency in $CONCURRENCY_LEVELS; do
+    for mode in platform virtual; do
+        base_url=$PLATFORM_URL
+        [ "$mode" = "virtual" ] && base_url=$VIRTUAL_URL
+
+        print_step "$mode, $concurrency concurrent clients, $DURATION..."
+        read -r rps p99 errors < <(run_load "$base_url$BENCH_PATH" "$concurrency" "$RESULTS_DIR/$mode-c$concurrency.txt")
+        echo "| $concurrency | $mode | $rps | $p99 | $errors |" >> "$summary"
+    done
+done
+
+print_success "Raw hey output and summary written to $RESULTS_DIR"
+cat "$summary"
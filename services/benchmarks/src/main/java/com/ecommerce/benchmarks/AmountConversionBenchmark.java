@@ -0,0 +1,61 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.payment.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// The conversions StripePaymentService does around every Stripe call: a request amount to minor
+// units, and a Stripe amount back to a decimal. The bigDecimal* benchmarks are the former fixed
+// factor-of-100 conversions, kept as a baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AmountConversionBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private BigDecimal amount;
+    private long minorUnits;
+    private String currency;
+
+    @Setup
+    public void setUp() {
+        amount = new BigDecimal("129.95");
+        minorUnits = 12995;
+        currency = "usd";
+    }
+
+    @Benchmark
+    public long toMinorUnits() {
+        return Money.of(amount, currency).minorUnits();
+    }
+
+    @Benchmark
+    public BigDecimal fromMinorUnits() {
+        return Money.ofMinor(minorUnits, currency).toBigDecimal();
+    }
+
+    @Benchmark
+    public long bigDecimalToMinorUnits() {
+        return amount.multiply(BigDecimal.valueOf(100)).longValue();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalFromMinorUnits() {
+        return BigDecimal.valueOf(minorUnits).divide(HUNDRED);
+    }
+}
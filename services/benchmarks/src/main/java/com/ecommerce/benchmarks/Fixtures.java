@@ -0,0 +1,67 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.products.model.Money;
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.model.ProductDimensions;
+import com.ecommerce.users.model.Address;
+import com.ecommerce.users.model.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+// Representative items: a fully populated catalog product and a user with an address, so the
+// benchmarks exercise nested beans, lists, sets and every converted attribute type
+final class Fixtures {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-15T10:30:00Z");
+
+    private Fixtures() {
+    }
+
+    static Product product() {
+        Product product = new Product();
+        product.setProductId("prod-0001");
+        product.setName("Trail Running Shoe");
+        product.setDescription("Lightweight trail shoe with a grippy outsole and a breathable mesh upper.");
+        product.setShortDescription("Lightweight trail shoe");
+        product.setPrice(Money.ofMinor(8999, Money.CATALOG_CURRENCY));
+        product.setOriginalPrice(Money.ofMinor(11999, Money.CATALOG_CURRENCY));
+        product.setCategory("footwear");
+        product.setBrand("Summit");
+        product.setSku("SUM-TRL-42-BLU");
+        product.setStockQuantity(240);
+        product.setMinStockLevel(20);
+        product.setRating(4.6);
+        product.setReviewCount(1287);
+        product.setImageUrls(List.of(
+                "https://cdn.example.com/products/prod-0001/1.jpg",
+                "https://cdn.example.com/products/prod-0001/2.jpg",
+                "https://cdn.example.com/products/prod-0001/3.jpg"));
+        product.setTags(Set.of("running", "trail", "outdoor"));
+        product.setDimensions(new ProductDimensions(31.0, 20.0, 12.0, "cm"));
+        product.setWeight(0.62);
+        product.setColor("blue");
+        product.setSize("42");
+        product.setCreatedAt(CREATED_AT);
+        product.setUpdatedAt(CREATED_AT);
+        product.setCreatedBy("catalog-import");
+        product.setUpdatedBy("catalog-import");
+        return product;
+    }
+
+    static User user() {
+        User user = new User("jane.doe@example.com", "Jane", "Doe", "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3rXXzE2NFx6e5i4EJ8dZ7Lq");
+        user.setUserId("user-0001");
+        user.setPhoneNumber("+1-555-0100");
+        user.addRole("CUSTOMER");
+        user.setEmailVerified(true);
+        user.setCreatedAt(CREATED_AT);
+        user.setUpdatedAt(CREATED_AT);
+        user.setLastLoginAt(CREATED_AT);
+        user.setProfileImageUrl("https://cdn.example.com/users/user-0001.jpg");
+        user.setDefaultAddress(new Address("1 Main Street", "Springfield", "IL", "62701", "US"));
+        user.setVersion(3L);
+        return user;
+    }
+}
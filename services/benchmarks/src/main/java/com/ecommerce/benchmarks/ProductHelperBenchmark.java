@@ -0,0 +1,69 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.products.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+// The Product helpers a listing calls once per item. The bigDecimal* benchmarks are the sale and
+// discount computations as they were before prices became Money, kept as a baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProductHelperBenchmark {
+
+    private Product product;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product();
+        price = product.getPrice().toBigDecimal();
+        originalPrice = product.getOriginalPrice().toBigDecimal();
+    }
+
+    @Benchmark
+    public boolean isOnSale() {
+        return product.isOnSale();
+    }
+
+    @Benchmark
+    public int discountPercentage() {
+        return product.getDiscountPercentage();
+    }
+
+    @Benchmark
+    public void stockFlags(Blackhole blackhole) {
+        blackhole.consume(product.isInStock());
+        blackhole.consume(product.isLowStock());
+    }
+
+    @Benchmark
+    public boolean bigDecimalIsOnSale() {
+        return originalPrice != null && originalPrice.compareTo(price) > 0;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDiscountPercentage() {
+        if (originalPrice == null || originalPrice.compareTo(price) <= 0) return BigDecimal.ZERO;
+        return originalPrice.subtract(price)
+                .divide(originalPrice, 2, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+}
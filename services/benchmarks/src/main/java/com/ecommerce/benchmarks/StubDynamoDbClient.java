@@ -0,0 +1,42 @@
+package com.ecommerce.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.util.Map;
+
+// Answers GetItem with a canned item and accepts PutItem without any I/O, so the enhanced client
+// benchmarks measure request building and item mapping rather than the network
+final class StubDynamoDbClient implements DynamoDbClient {
+
+    private static final PutItemResponse PUT_RESPONSE = PutItemResponse.builder().build();
+
+    private final GetItemResponse getResponse;
+
+    StubDynamoDbClient(Map<String, AttributeValue> item) {
+        this.getResponse = GetItemResponse.builder().item(item).build();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        return getResponse;
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        return PUT_RESPONSE;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.model.ProductSchemas;
+import com.ecommerce.users.model.User;
+import com.ecommerce.users.model.UserSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// DynamoDB item mapping of the two largest beans: building a bean schema (a startup cost), mapping
+// to and from AttributeValue maps, and a full enhanced-client get/put against a stubbed client.
+// `schema` selects the reflective bean schemas or the hand-built static ones the services use; the
+// UserSchemasTest and ProductSchemasTest unit tests check that the two are interchangeable.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TableSchemaBenchmark {
+
+    @Param({"bean", "static"})
+    private String schema;
+
+    private TableSchema<Product> productSchema;
+    private TableSchema<User> userSchema;
+    private Product product;
+    private User user;
+    private Map<String, AttributeValue> productItem;
+    private Map<String, AttributeValue> userItem;
+    private DynamoDbTable<Product> productTable;
+    private DynamoDbTable<User> userTable;
+    private Key productKey;
+    private Key userKey;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.product();
+        user = Fixtures.user();
+        boolean bean = "bean".equals(schema);
+        productSchema = bean ? TableSchema.fromBean(Product.class) : ProductSchemas.PRODUCT;
+        userSchema = bean ? TableSchema.fromBean(User.class) : UserSchemas.USER;
+        productItem = productSchema.itemToMap(product, true);
+        userItem = userSchema.itemToMap(user, true);
+
+        productTable = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(new StubDynamoDbClient(productItem))
+                .build()
+                .table("products", productSchema);
+        userTable = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(new StubDynamoDbClient(userItem))
+                .build()
+                .table("users", userSchema);
+        productKey = Key.builder().partitionValue(product.getProductId()).build();
+        userKey = Key.builder().partitionValue(user.getUserId()).build();
+    }
+
+    @Benchmark
+    public TableSchema<Product> productSchemaFromBean() {
+        return TableSchema.fromBean(Product.class);
+    }
+
+    @Benchmark
+    public TableSchema<User> userSchemaFromBean() {
+        return TableSchema.fromBean(User.class);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> productToItem() {
+        return productSchema.itemToMap(product, true);
+    }
+
+    @Benchmark
+    public Product productFromItem() {
+        return productSchema.mapToItem(productItem);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> userToItem() {
+        return userSchema.itemToMap(user, true);
+    }
+
+    @Benchmark
+    public User userFromItem() {
+        return userSchema.mapToItem(userItem);
+    }
+
+    @Benchmark
+    public Product productGetItem() {
+        return productTable.getItem(productKey);
+    }
+
+    @Benchmark
+    public void productPutItem() {
+        productTable.putItem(product);
+    }
+
+    @Benchmark
+    public User userGetItem() {
+        return userTable.getItem(userKey);
+    }
+
+    @Benchmark
+    public void userPutItem() {
+        userTable.putItem(user);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.payment.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Objects;
+
+// An amount in the minor units of its currency, which is what Stripe charges in: cents for USD, but
+// whole yen for JPY. Converting through the currency's fraction digits instead of a fixed factor of
+// 100 keeps zero-decimal currencies from being charged a hundredfold.
+public record Money(long minorUnits, String currency) {
+
+    // Currencies whose Stripe minor unit differs from the ISO 4217 one the JDK reports. Stripe takes
+    // ISK and UGX as two-decimal amounts, although only whole units can be charged, and MGA in whole
+    // units.
+    private static final Map<String, Integer> STRIPE_FRACTION_DIGITS = Map.of("ISK", 2, "UGX", 2, "MGA", 0);
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency.toUpperCase());
+    }
+
+    // Amounts finer than what can be charged in the currency are rejected with an
+    // IllegalArgumentException rather than rounded, so a customer is never charged other than what
+    // was asked. So are unknown currency codes.
+    public static Money of(BigDecimal amount, String currency) {
+        String code = currency.toUpperCase();
+        try {
+            // Checked against the coarser of the two units, so e.g. ISK must be whole
+            amount.setScale(Math.min(isoFractionDigits(code), fractionDigits(code)), RoundingMode.UNNECESSARY);
+            return new Money(amount.setScale(fractionDigits(code), RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), code);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not a valid " + code + " amount", e);
+        }
+    }
+
+    // Digits of Stripe's minor unit for the currency
+    public static int fractionDigits(String currency) {
+        Integer stripeDigits = STRIPE_FRACTION_DIGITS.get(currency);
+        return stripeDigits != null ? stripeDigits : isoFractionDigits(currency);
+    }
+
+    private static int isoFractionDigits(String currency) {
+        Currency isoCurrency;
+        try {
+            isoCurrency = Currency.getInstance(currency);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown currency " + currency, e);
+        }
+        // Pseudo-currencies report -1; treat them as having no minor unit
+        return Math.max(0, isoCurrency.getDefaultFractionDigits());
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+}
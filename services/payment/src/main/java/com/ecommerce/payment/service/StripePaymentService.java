@@ -2,6 +2,7 @@ package com.ecommerce.payment.service;
 
 import com.ecommerce.payment.dto.PaymentRequest;
 import com.ecommerce.payment.dto.PaymentResponse;
+import com.ecommerce.payment.model.Money;
 import com.ecommerce.payment.model.Payment;
 import com.ecommerce.payment.model.PaymentStatus;
 import com.stripe.Stripe;
@@ -10,7 +11,9 @@ import com.stripe.model.PaymentIntent;
 import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.PaymentIntentConfirmParams;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,11 +42,11 @@ public class StripePaymentService {
 
     public PaymentResponse createPaymentIntent(PaymentRequest paymentRequest) {
         try {
-            // Convert amount to cents (Stripe expects amounts in smallest currency unit)
-            long amountInCents = paymentRequest.getAmount().multiply(BigDecimal.valueOf(100)).longValue();
+            // Stripe expects amounts in the smallest currency unit
+            Money amount = chargeable(paymentRequest.getAmount(), paymentRequest.getCurrency());
 
             PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                    .setAmount(amountInCents)
+                    .setAmount(amount.minorUnits())
                     .setCurrency(paymentRequest.getCurrency().toLowerCase())
                     .setDescription("E-commerce order payment")
                     .putMetadata("orderId", paymentRequest.getOrderId())
@@ -96,7 +99,7 @@ public class StripePaymentService {
             return PaymentResponse.builder()
                     .paymentIntentId(confirmedPayment.getId())
                     .status(status)
-                    .amount(BigDecimal.valueOf(confirmedPayment.getAmount()).divide(BigDecimal.valueOf(100)))
+                    .amount(Money.ofMinor(confirmedPayment.getAmount(), confirmedPayment.getCurrency()).toBigDecimal())
                     .currency(confirmedPayment.getCurrency().toUpperCase())
                     .orderId(confirmedPayment.getMetadata().get("orderId"))
                     .userId(confirmedPayment.getMetadata().get("userId"))
@@ -118,7 +121,7 @@ public class StripePaymentService {
             return PaymentResponse.builder()
                     .paymentIntentId(paymentIntent.getId())
                     .status(status)
-                    .amount(BigDecimal.valueOf(paymentIntent.getAmount()).divide(BigDecimal.valueOf(100)))
+                    .amount(Money.ofMinor(paymentIntent.getAmount(), paymentIntent.getCurrency()).toBigDecimal())
                     .currency(paymentIntent.getCurrency().toUpperCase())
                     .orderId(paymentIntent.getMetadata().get("orderId"))
                     .userId(paymentIntent.getMetadata().get("userId"))
@@ -144,8 +147,7 @@ public class StripePaymentService {
             refundParams.put("charge", paymentIntent.getLatestCharge());
             
             if (refundAmount != null) {
-                long refundAmountInCents = refundAmount.multiply(BigDecimal.valueOf(100)).longValue();
-                refundParams.put("amount", refundAmountInCents);
+                refundParams.put("amount", chargeable(refundAmount, paymentIntent.getCurrency()).minorUnits());
             }
 
             com.stripe.model.Refund refund = com.stripe.model.Refund.create(refundParams);
@@ -155,8 +157,8 @@ public class StripePaymentService {
             return PaymentResponse.builder()
                     .paymentIntentId(paymentIntentId)
                     .status(PaymentStatus.REFUNDED)
-                    .amount(refundAmount != null ? refundAmount : 
-                           BigDecimal.valueOf(paymentIntent.getAmount()).divide(BigDecimal.valueOf(100)))
+                    .amount(refundAmount != null ? refundAmount :
+                           Money.ofMinor(paymentIntent.getAmount(), paymentIntent.getCurrency()).toBigDecimal())
                     .currency(paymentIntent.getCurrency().toUpperCase())
                     .orderId(paymentIntent.getMetadata().get("orderId"))
                     .userId(paymentIntent.getMetadata().get("userId"))
@@ -181,6 +183,15 @@ public class StripePaymentService {
         }
     }
 
+    // An amount finer than the currency allows, or an unknown currency, is the caller's error
+    private Money chargeable(BigDecimal amount, String currency) {
+        try {
+            return Money.of(amount, currency);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     private PaymentStatus mapStripeStatusToPaymentStatus(String stripeStatus) {
         return switch (stripeStatus) {
             case "requires_payment_method" -> PaymentStatus.PENDING;
@@ -0,0 +1,100 @@
+package com.ecommerce.products.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.model.ProductSchemas;
+import com.ecommerce.products.repository.AdaptiveRateLimiter;
+import com.ecommerce.products.repository.ParallelScanner;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DynamoDbConfig {
+
+    @Value("${aws.region:us-east-1}")
+    private String awsRegion;
+
+    @Value("${aws.dynamodb.endpoint:}")
+    private String dynamoDbEndpoint;
+
+    @Bean
+    @Profile("!test")
+    public DynamoDbClient dynamoDbClient() {
+        var builder = DynamoDbClient.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(DefaultCredentialsProvider.create());
+
+        // For local development with DynamoDB Local
+        if (!dynamoDbEndpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(dynamoDbEndpoint));
+        }
+
+        return builder.build();
+    }
+
+    @Bean
+    @Profile("test")
+    public DynamoDbClient testDynamoDbClient() {
+        return DynamoDbClient.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .build();
+    }
+
+    @Bean
+    public DynamoDbStreamsClient dynamoDbStreamsClient() {
+        var builder = DynamoDbStreamsClient.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(DefaultCredentialsProvider.create());
+
+        if (!dynamoDbEndpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(dynamoDbEndpoint));
+        }
+
+        return builder.build();
+    }
+
+    @Bean
+    public DynamoDbEnhancedClient dynamoDbEnhancedClient(DynamoDbClient dynamoDbClient) {
+        return DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(dynamoDbClient)
+                .build();
+    }
+
+    @Bean
+    public DynamoDbTable<Product> productTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("products", ProductSchemas.PRODUCT);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService productScanExecutor(@Value("${products.scan.max-threads:8}") int maxThreads) {
+        return Executors.newFixedThreadPool(maxThreads, new CustomizableThreadFactory("product-scan-"));
+    }
+
+    @Bean
+    public ParallelScanner<Product> productScanner(DynamoDbTable<Product> productTable,
+                                                   @Qualifier("productScanExecutor") ExecutorService productScanExecutor,
+                                                   @Value("${products.scan.segments:8}") int segments,
+                                                   @Value("${products.scan.page-size:500}") int pageSize,
+                                                   @Value("${products.scan.min-pages-per-second:1}") double minPagesPerSecond,
+                                                   @Value("${products.scan.max-pages-per-second:40}") double maxPagesPerSecond) {
+        return new ParallelScanner<>(productTable, productScanExecutor, segments, pageSize,
+                new AdaptiveRateLimiter(minPagesPerSecond, maxPagesPerSecond));
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.products.controller;
+
+import com.ecommerce.products.inventory.InsufficientStockException;
+import com.ecommerce.products.inventory.InventoryService;
+import com.ecommerce.products.inventory.Reservation;
+import com.ecommerce.products.inventory.ReservationConflictException;
+import com.ecommerce.products.inventory.ReservationLine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products/inventory")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    @Autowired
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    // reservationId is chosen by the caller (e.g. the checkout id), so a retried request is idempotent
+    public record ReserveRequest(String reservationId, List<ReservationLine> items, Long holdSeconds) {
+    }
+
+    public record Availability(String productId, int available, boolean inStock, boolean lowStock) {
+    }
+
+    @GetMapping("/{productId}/availability")
+    public ResponseEntity<Availability> getAvailability(@PathVariable String productId) {
+        return inventoryService.getAvailability(productId)
+                .map(stock -> ResponseEntity.ok(new Availability(
+                        productId, Math.max(0, stock.quantity()), stock.isInStock(), stock.isLowStock())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserve(@RequestBody ReserveRequest request) {
+        if (request.reservationId() == null || request.reservationId().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "reservationId is required"));
+        }
+        try {
+            Duration hold = request.holdSeconds() != null ? Duration.ofSeconds(request.holdSeconds()) : null;
+            Reservation reservation = inventoryService.reserve(request.reservationId(), request.items(), hold);
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("productId", e.getProductId(), "message", e.getMessage()));
+        } catch (ReservationConflictException e) {
+            // Gone once the record expired out of the table; the caller has to start a new checkout
+            HttpStatus status = e.getStatus() != null ? HttpStatus.CONFLICT : HttpStatus.GONE;
+            return ResponseEntity.status(status)
+                    .body(Map.of("reservationId", e.getReservationId(), "message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<Void> commit(@PathVariable String reservationId) {
+        return inventoryService.commit(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable String reservationId) {
+        return inventoryService.release(reservationId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @PostMapping("/{productId}/shards")
+    public ResponseEntity<?> enableSharding(@PathVariable String productId, @RequestParam int count) {
+        try {
+            inventoryService.enableSharding(productId, count);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{productId}/shards")
+    public ResponseEntity<?> disableSharding(@PathVariable String productId) {
+        try {
+            inventoryService.disableSharding(productId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
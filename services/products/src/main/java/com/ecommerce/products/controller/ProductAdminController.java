@@ -0,0 +1,55 @@
+package com.ecommerce.products.controller;
+
+import com.ecommerce.products.service.ProductIndexBackfillJob;
+import com.ecommerce.products.service.ProductReindexJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products/admin")
+public class ProductAdminController {
+
+    private final ProductReindexJob productReindexJob;
+    private final ProductIndexBackfillJob productIndexBackfillJob;
+
+    @Autowired
+    public ProductAdminController(ProductReindexJob productReindexJob, ProductIndexBackfillJob productIndexBackfillJob) {
+        this.productReindexJob = productReindexJob;
+        this.productIndexBackfillJob = productIndexBackfillJob;
+    }
+
+    @PostMapping("/search-reindex")
+    public ResponseEntity<Map<String, Object>> reindex() {
+        if (!productReindexJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("running", true, "message", "Reindex already in progress"));
+        }
+        return ResponseEntity.accepted().body(Map.of("running", true));
+    }
+
+    @GetMapping("/search-reindex")
+    public Map<String, Object> reindexStatus() {
+        return Map.of("running", productReindexJob.isRunning());
+    }
+
+    @PostMapping("/index-backfill")
+    public ResponseEntity<Map<String, Object>> backfillIndexes() {
+        if (!productIndexBackfillJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("running", true, "message", "Backfill already in progress"));
+        }
+        return ResponseEntity.accepted().body(Map.of("running", true));
+    }
+
+    @GetMapping("/index-backfill")
+    public Map<String, Object> backfillStatus() {
+        return Map.of("running", productIndexBackfillJob.isRunning());
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.products.controller;
+
+import com.ecommerce.products.search.ProductSearchCriteria;
+import com.ecommerce.products.search.ProductSearchResult;
+import com.ecommerce.products.search.ProductSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/search")
+public class ProductSearchController {
+
+    private final ProductSearchService productSearchService;
+
+    @Autowired
+    public ProductSearchController(ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ProductSearchResult> search(@RequestParam(required = false) String q,
+                                                      @RequestParam(required = false) List<String> category,
+                                                      @RequestParam(required = false) List<String> brand,
+                                                      @RequestParam(required = false) List<String> color,
+                                                      @RequestParam(required = false) List<String> size,
+                                                      @RequestParam(required = false) List<String> tag,
+                                                      @RequestParam(required = false) BigDecimal minPrice,
+                                                      @RequestParam(required = false) BigDecimal maxPrice,
+                                                      @RequestParam(required = false) Double minRating,
+                                                      @RequestParam(defaultValue = "RELEVANCE") ProductSearchCriteria.SortBy sort,
+                                                      @RequestParam(defaultValue = "24") int pageSize,
+                                                      @RequestParam(required = false) String cursor) {
+        var criteria = new ProductSearchCriteria();
+        criteria.setQuery(q);
+        criteria.setCategories(orEmpty(category));
+        criteria.setBrands(orEmpty(brand));
+        criteria.setColors(orEmpty(color));
+        criteria.setSizes(orEmpty(size));
+        criteria.setTags(orEmpty(tag));
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setMinRating(minRating);
+        criteria.setSortBy(sort);
+        criteria.setPageSize(pageSize);
+        criteria.setCursor(cursor);
+
+        try {
+            return ResponseEntity.ok(productSearchService.search(criteria));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private List<String> orEmpty(List<String> values) {
+        return values != null ? values : new ArrayList<>();
+    }
+}
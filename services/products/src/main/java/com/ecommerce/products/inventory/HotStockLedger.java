@@ -0,0 +1,438 @@
+package com.ecommerce.products.inventory;
+
+import com.ecommerce.products.repository.InventoryRepository;
+import com.ecommerce.products.repository.InventoryRepository.ProductStock;
+import com.ecommerce.products.repository.StockLeaseRepository;
+import com.ecommerce.products.repository.StockLeaseRepository.Lease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-pod stock of hot (sharded) products, so flash-sale availability checks and reservations are
+// answered from memory. The pod leases blocks of units out of the shared shard counters and hands
+// them out from a striped lock-free counter; since a unit is in exactly one lease or counter, pods
+// never oversell each other.
+//
+// Reservations that take leased units are written with this pod's owner id and a sequence number.
+// Instead of updating the lease on every reservation, the units taken are written back in one
+// update per product and flush interval, together with the sequence number the flush covers. If the
+// pod dies, whoever reclaims its expired lease subtracts the units of reservations made after that
+// sequence number, so units that were already handed out never go back to stock.
+//
+// A ledger closed while reservations are still in flight leaves its lease behind with their units
+// in it. A new lease can't be created next to it, so the product isn't reopened on this pod until
+// the old lease expires and is reclaimed, by this pod or any other.
+@Component
+public class HotStockLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockLedger.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final StockLeaseRepository stockLeaseRepository;
+    private final String owner = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, ProductLedger> ledgers = new ConcurrentHashMap<>();
+    // Products whose lease a closed ledger left behind
+    private final Set<String> leftBehind = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refillExecutor;
+    private final int blockSize;
+    private final int stripes;
+    private final Duration leaseTime;
+    private final Duration renewMargin;
+    private final Duration reclaimGrace;
+    private final Counter localCounter;
+    private final Counter fallbackCounter;
+
+    private volatile Set<String> hotProducts = Collections.emptySet();
+
+    // Sequence numbers of reservations whose transaction has not finished; flushes only account for
+    // reservations below the oldest of them
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long sequence;
+
+    @Autowired
+    public HotStockLedger(InventoryRepository inventoryRepository,
+                          StockLeaseRepository stockLeaseRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${products.inventory.ledger.block-size:50}") int blockSize,
+                          @Value("${products.inventory.ledger.stripes:16}") int stripes,
+                          @Value("${products.inventory.ledger.lease-time:60s}") Duration leaseTime,
+                          @Value("${products.inventory.ledger.renew-margin:15s}") Duration renewMargin,
+                          @Value("${products.inventory.ledger.reclaim-grace:30s}") Duration reclaimGrace) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockLeaseRepository = stockLeaseRepository;
+        this.blockSize = blockSize;
+        this.stripes = stripes;
+        this.leaseTime = leaseTime;
+        this.renewMargin = renewMargin;
+        this.reclaimGrace = reclaimGrace;
+        this.refillExecutor = Executors.newFixedThreadPool(2, new CustomizableThreadFactory("stock-ledger-refill-"));
+        this.localCounter = ledgerCounter(meterRegistry, "local");
+        this.fallbackCounter = ledgerCounter(meterRegistry, "fallback");
+    }
+
+    private final class ProductLedger {
+
+        final String productId;
+        final StripedCounter available = new StripedCounter(stripes);
+        // Units taken by finished reservations, by sequence number, not yet written back
+        final ConcurrentSkipListMap<Long, Long> taken = new ConcurrentSkipListMap<>();
+        final AtomicBoolean refilling = new AtomicBoolean();
+        volatile Instant leasedUntil;
+        volatile long elsewhere;
+        volatile ProductStock stock;
+
+        ProductLedger(String productId, ProductStock stock) {
+            this.productId = productId;
+            this.stock = stock;
+        }
+
+        boolean isServing() {
+            Instant until = leasedUntil;
+            return until != null && Instant.now().isBefore(until.minus(renewMargin));
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean isHot(String productId) {
+        return hotProducts.contains(productId);
+    }
+
+    // Starts a reservation that may take leased units; must be paired with complete()
+    public long begin() {
+        synchronized (inFlight) {
+            long seq = ++sequence;
+            inFlight.add(seq);
+            return seq;
+        }
+    }
+
+    // Takes units from this pod's lease without any I/O; false if the lease cannot cover them right
+    // now, in which case the caller reserves from the shard counters instead
+    public boolean take(String productId, int quantity) {
+        if (!isHot(productId)) {
+            return false;
+        }
+        ProductLedger ledger = ledger(productId);
+        if (ledger == null) {
+            return false;
+        }
+
+        if (ledger.isServing() && ledger.available.tryTake(quantity)) {
+            if (ledger.available.sum() < blockSize / 4) {
+                refillAsync(ledger);
+            }
+            localCounter.increment();
+            return true;
+        }
+        // Only one caller refills inline; the others fall back rather than queue behind it
+        if (ledger.refilling.compareAndSet(false, true)) {
+            try {
+                if (refill(ledger, Math.max(blockSize, quantity)) && ledger.available.tryTake(quantity)) {
+                    localCounter.increment();
+                    return true;
+                }
+            } finally {
+                ledger.refilling.set(false);
+            }
+        }
+        fallbackCounter.increment();
+        return false;
+    }
+
+    // Records what the reservation took once its transaction committed, or puts it back if it did not
+    public void complete(long seq, Map<String, Integer> takenUnits, boolean reserved) {
+        try {
+            takenUnits.forEach((productId, quantity) -> {
+                ProductLedger ledger = ledgers.get(productId);
+                if (ledger == null) {
+                    // The lease was lost or handed back meanwhile; the units stay with the lease item
+                    // and are settled when it is reclaimed
+                    return;
+                }
+                if (reserved) {
+                    ledger.taken.merge(seq, (long) quantity, Long::sum);
+                } else {
+                    ledger.available.add(quantity);
+                }
+            });
+        } finally {
+            synchronized (inFlight) {
+                inFlight.remove(seq);
+            }
+        }
+    }
+
+    // Locally known stock of a hot product: this pod's units, the shard counters and what other pods
+    // still hold, as of the last refresh. Empty for products this pod does not track.
+    public Optional<ProductStock> estimate(String productId) {
+        ProductLedger ledger = isHot(productId) ? ledger(productId) : null;
+        if (ledger == null) {
+            return Optional.empty();
+        }
+        long total = ledger.available.sum() + ledger.elsewhere;
+        ProductStock stock = ledger.stock;
+        return Optional.of(new ProductStock((int) Math.min(Integer.MAX_VALUE, total), stock.shards(), stock.minStockLevel()));
+    }
+
+    // Writes back the units taken since the last flush and renews every lease
+    @Scheduled(fixedDelayString = "${products.inventory.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        for (ProductLedger ledger : ledgers.values()) {
+            if (!flush(ledger, Instant.now().plus(leaseTime))) {
+                // Reclaimed after it expired; the reclaim already settled every unit it held
+                ledgers.remove(ledger.productId);
+                logger.warn("Lost stock lease of product {}, dropping {} local units",
+                        ledger.productId, ledger.available.drain());
+            }
+        }
+    }
+
+    // Picks up newly sharded products, hands back leases of products no longer sharded, refreshes
+    // the availability estimates and reclaims the expired leases of pods that went away
+    @Scheduled(fixedDelayString = "${products.inventory.ledger.refresh-interval-ms:5000}")
+    public void refresh() {
+        try {
+            hotProducts = inventoryRepository.findShardedProductIds();
+        } catch (Exception e) {
+            logger.warn("Failed to refresh hot products: {}", e.getMessage());
+            return;
+        }
+
+        for (ProductLedger ledger : ledgers.values()) {
+            if (!isHot(ledger.productId)) {
+                close(ledger);
+            }
+        }
+        Set<String> productIds = new HashSet<>(hotProducts);
+        productIds.addAll(leftBehind);
+        for (String productId : productIds) {
+            try {
+                refreshProduct(productId);
+            } catch (Exception e) {
+                logger.warn("Failed to refresh stock leases of product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        ledgers.values().forEach(this::close);
+        refillExecutor.shutdown();
+    }
+
+    // Opens the ledger outside the map, so the reads don't run under its bin lock and pin a carrier
+    // thread; a racing open is dropped
+    private ProductLedger ledger(String productId) {
+        ProductLedger ledger = ledgers.get(productId);
+        if (ledger != null || leftBehind.contains(productId)) {
+            return ledger;
+        }
+        ProductLedger opened = open(productId);
+        if (opened == null) {
+            return null;
+        }
+        ledger = ledgers.putIfAbsent(productId, opened);
+        if (ledger != null) {
+            return ledger;
+        }
+        // Closed and left behind while it was opening
+        if (leftBehind.contains(productId)) {
+            ledgers.remove(productId, opened);
+            return null;
+        }
+        return opened;
+    }
+
+    private ProductLedger open(String productId) {
+        try {
+            Optional<ProductStock> stock = inventoryRepository.findStock(productId).filter(ProductStock::isSharded);
+            if (stock.isEmpty()) {
+                return null;
+            }
+            // Counted right away, so the estimate doesn't read as sold out until the first refresh
+            ProductLedger ledger = new ProductLedger(productId, stock.get());
+            long elsewhere = shardUnits(productId);
+            for (Lease lease : stockLeaseRepository.findLeases(productId)) {
+                if (!owner.equals(lease.owner())) {
+                    elsewhere += lease.units();
+                }
+            }
+            ledger.elsewhere = elsewhere;
+            return ledger;
+        } catch (Exception e) {
+            logger.warn("Failed to open stock ledger of product {}: {}", productId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void refillAsync(ProductLedger ledger) {
+        if (ledger.refilling.compareAndSet(false, true)) {
+            refillExecutor.execute(() -> {
+                try {
+                    refill(ledger, blockSize);
+                } finally {
+                    ledger.refilling.set(false);
+                }
+            });
+        }
+    }
+
+    // Leases up to `units` from the fullest shard
+    private boolean refill(ProductLedger ledger, int units) {
+        try {
+            Optional<Map.Entry<Integer, Long>> fullest = inventoryRepository.findShards(ledger.productId).entrySet().stream()
+                    .max(Map.Entry.comparingByValue());
+            if (fullest.isEmpty() || fullest.get().getValue() <= 0) {
+                return false;
+            }
+            int leased = (int) Math.min(units, fullest.get().getValue());
+            Instant leasedUntil = Instant.now().plus(leaseTime);
+            // Only the first block creates the lease; later ones must not recreate a reclaimed lease
+            // under units this ledger still holds
+            if (!stockLeaseRepository.allocate(new ReservedStock(ledger.productId, fullest.get().getKey(), leased),
+                    owner, ledger.leasedUntil == null, resolvedSeq(), leasedUntil)) {
+                return false;
+            }
+            ledger.available.add(leased);
+            ledger.leasedUntil = leasedUntil;
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to lease stock of product {}: {}", ledger.productId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void refreshProduct(String productId) {
+        long elsewhere = shardUnits(productId);
+        Instant now = Instant.now();
+        boolean ownLeaseLeft = false;
+        for (Lease lease : stockLeaseRepository.findLeases(productId)) {
+            boolean own = owner.equals(lease.owner());
+            if (own && !leftBehind.contains(productId)) {
+                continue;
+            }
+            if (lease.leasedUntil().plus(reclaimGrace).isBefore(now)) {
+                long unsold = Math.max(0, lease.units() - stockLeaseRepository.findUnflushedUnits(lease));
+                if (stockLeaseRepository.reclaim(lease, returnTarget(productId, unsold))) {
+                    logger.info("Reclaimed expired stock lease of product {} from {}, returned {} units",
+                            productId, lease.owner(), unsold);
+                } else {
+                    ownLeaseLeft |= own;
+                }
+            } else {
+                ownLeaseLeft |= own;
+                elsewhere += lease.units();
+            }
+        }
+        if (!ownLeaseLeft) {
+            leftBehind.remove(productId);
+        }
+
+        ProductLedger ledger = ledgers.get(productId);
+        if (ledger != null) {
+            ledger.elsewhere = elsewhere;
+            inventoryRepository.findStock(productId).ifPresent(stock -> ledger.stock = stock);
+        }
+    }
+
+    // Hands a ledger's unsold units back to the product's counters once it is no longer hot, and
+    // deletes the lease if nothing is left in it
+    private void close(ProductLedger ledger) {
+        if (ledger.leasedUntil == null) {
+            ledgers.remove(ledger.productId);
+            return;
+        }
+        leftBehind.add(ledger.productId);
+        ledgers.remove(ledger.productId);
+        if (!flush(ledger, ledger.leasedUntil)) {
+            return;
+        }
+        long unsold = ledger.available.drain();
+        if (unsold > 0 && !stockLeaseRepository.giveBack(owner, returnTarget(ledger.productId, unsold))) {
+            // Left in the lease, which is reclaimed once it expires
+            logger.warn("Failed to hand back {} leased units of product {}", unsold, ledger.productId);
+            return;
+        }
+        try {
+            if (stockLeaseRepository.release(ledger.productId, owner)) {
+                leftBehind.remove(ledger.productId);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to release stock lease of product {}: {}", ledger.productId, e.getMessage());
+        }
+    }
+
+    // False only if the lease is gone; a failed write is retried by the next flush
+    private boolean flush(ProductLedger ledger, Instant leasedUntil) {
+        if (ledger.leasedUntil == null) {
+            return true;
+        }
+        long flushedSeq = resolvedSeq();
+        ConcurrentNavigableMap<Long, Long> flushed = ledger.taken.headMap(flushedSeq, true);
+        long sold = flushed.values().stream().mapToLong(Long::longValue).sum();
+        try {
+            if (!stockLeaseRepository.flush(ledger.productId, owner, sold, flushedSeq, leasedUntil)) {
+                return false;
+            }
+            flushed.clear();
+            ledger.leasedUntil = leasedUntil;
+        } catch (Exception e) {
+            logger.warn("Failed to flush stock lease of product {}: {}", ledger.productId, e.getMessage());
+        }
+        return true;
+    }
+
+    private long shardUnits(String productId) {
+        return inventoryRepository.findShards(productId).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private ReservedStock returnTarget(String productId, long units) {
+        int quantity = (int) Math.min(Integer.MAX_VALUE, units);
+        return inventoryRepository.findStock(productId)
+                .filter(ProductStock::isSharded)
+                .map(stock -> new ReservedStock(productId, ThreadLocalRandom.current().nextInt(stock.shards()), quantity))
+                .orElseGet(() -> ReservedStock.unsharded(productId, quantity));
+    }
+
+    // Highest sequence number below every reservation still in flight
+    private long resolvedSeq() {
+        synchronized (inFlight) {
+            return inFlight.isEmpty() ? sequence : inFlight.first() - 1;
+        }
+    }
+
+    private Counter ledgerCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("products.inventory.ledger.takes")
+                .description("Hot-product reservations served from the local stock ledger or falling back to the shard counters")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.products.inventory;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private final String productId;
+    private final int requested;
+
+    public InsufficientStockException(String productId, int requested) {
+        super("Not enough stock of product " + productId + " to reserve " + requested);
+        this.productId = productId;
+        this.requested = requested;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
@@ -0,0 +1,387 @@
+package com.ecommerce.products.inventory;
+
+import com.ecommerce.products.repository.InventoryRepository;
+import com.ecommerce.products.repository.InventoryRepository.ProductStock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Reserves stock for checkouts without ever reading and rewriting a whole Product. A reservation
+// takes its units from the product's counter (or, for hot products, from one or more stock shards)
+// in a single transaction with the reservation record, so a cart is either held completely or not
+// at all. Holds that are neither committed nor released expire back into stock.
+@Service
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    // TransactWriteItems limit; one item goes to the reservation record
+    private static final int MAX_TRANSACTION_ITEMS = 100;
+
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+    private static final String TRANSACTION_CONFLICT = "TransactionConflict";
+
+    private final InventoryRepository inventoryRepository;
+    private final HotStockLedger hotStockLedger;
+    private final Duration defaultHold;
+    private final Duration maxHold;
+    private final Duration retention;
+    private final int pendingShards;
+    private final int maxStockShards;
+    private final int maxAttempts;
+    private final Counter reservedCounter;
+    private final Counter insufficientCounter;
+    private final Counter committedCounter;
+    private final Counter releasedCounter;
+    private final Counter expiredCounter;
+
+    @Autowired
+    public InventoryService(InventoryRepository inventoryRepository,
+                            HotStockLedger hotStockLedger,
+                            MeterRegistry meterRegistry,
+                            @Value("${products.inventory.reservation-hold:15m}") Duration defaultHold,
+                            @Value("${products.inventory.max-reservation-hold:1h}") Duration maxHold,
+                            @Value("${products.inventory.reservation-retention:7d}") Duration retention,
+                            @Value("${products.inventory.pending-shards:16}") int pendingShards,
+                            @Value("${products.inventory.max-stock-shards:32}") int maxStockShards,
+                            @Value("${products.inventory.max-attempts:4}") int maxAttempts) {
+        this.inventoryRepository = inventoryRepository;
+        this.hotStockLedger = hotStockLedger;
+        this.defaultHold = defaultHold;
+        this.maxHold = maxHold;
+        this.retention = retention;
+        this.pendingShards = pendingShards;
+        this.maxStockShards = maxStockShards;
+        this.maxAttempts = maxAttempts;
+        this.reservedCounter = reservationCounter(meterRegistry, "reserved");
+        this.insufficientCounter = reservationCounter(meterRegistry, "insufficient");
+        this.committedCounter = reservationCounter(meterRegistry, "committed");
+        this.releasedCounter = reservationCounter(meterRegistry, "released");
+        this.expiredCounter = reservationCounter(meterRegistry, "expired");
+    }
+
+    public int getPendingShards() {
+        return pendingShards;
+    }
+
+    // Holds every line of the cart or none of them. Retrying with the same reservationId returns the
+    // reservation already made instead of taking the stock twice, as long as it is still held.
+    public Reservation reserve(String reservationId, List<ReservationLine> lines, Duration hold) {
+        Map<String, Integer> quantities = merge(lines);
+        Duration holdFor = hold != null ? hold : defaultHold;
+        if (holdFor.isNegative() || holdFor.isZero() || holdFor.compareTo(maxHold) > 0) {
+            throw new IllegalArgumentException("Reservation hold must be between 0 and " + maxHold);
+        }
+
+        boolean anyHot = quantities.keySet().stream().anyMatch(hotStockLedger::isHot);
+        for (int attempt = 1; ; attempt++) {
+            long leaseSeq = anyHot ? hotStockLedger.begin() : 0;
+            Map<String, Integer> leased = new LinkedHashMap<>();
+            // Whether the leased units may have been written into a reservation; an error that leaves
+            // the outcome unknown keeps them taken, undercounting stock rather than overselling it
+            boolean written = false;
+            try {
+                List<ReservedStock> stock = allocate(quantities, anyHot ? leased : null);
+                // Leased units were already taken in memory; only the other lines are counter updates
+                List<ReservedStock> counters = stock.stream()
+                        .filter(line -> !line.isLeased())
+                        .collect(Collectors.toList());
+                if (counters.size() + 1 > MAX_TRANSACTION_ITEMS) {
+                    throw new IllegalArgumentException("Too many products in one reservation");
+                }
+
+                Instant expiresAt = Instant.now().plus(holdFor);
+                Reservation reservation = new Reservation(reservationId, Reservation.Status.PENDING, stock, expiresAt);
+                List<TransactWriteItem> writes = new ArrayList<>(counters.size() + 1);
+                writes.add(inventoryRepository.putReservation(reservation,
+                        ThreadLocalRandom.current().nextInt(pendingShards), expiresAt.plus(retention),
+                        leased.isEmpty() ? null : hotStockLedger.getOwner(), leaseSeq));
+                counters.forEach(line -> writes.add(inventoryRepository.decrement(line)));
+
+                try {
+                    written = true;
+                    inventoryRepository.transact(writes);
+                    reservedCounter.increment();
+                    return reservation;
+                } catch (TransactionCanceledException e) {
+                    written = false;
+                    List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                    if (failed(reasons, 0, CONDITIONAL_CHECK_FAILED)) {
+                        return existing(reservationId);
+                    }
+
+                    boolean retry = reasons.stream().anyMatch(reason -> TRANSACTION_CONFLICT.equals(reason.code()));
+                    for (int i = 1; i < reasons.size(); i++) {
+                        if (!failed(reasons, i, CONDITIONAL_CHECK_FAILED)) {
+                            continue;
+                        }
+                        ReservedStock line = counters.get(i - 1);
+                        // A shard ran dry between reading and taking from it, or the product switched
+                        // between sharded and unsharded; only an unsharded shortage is final
+                        Optional<ProductStock> current = inventoryRepository.findStock(line.productId());
+                        if (!line.isSharded() && current.isPresent() && !current.get().isSharded()) {
+                            insufficientCounter.increment();
+                            throw new InsufficientStockException(line.productId(), quantities.get(line.productId()));
+                        }
+                        retry = true;
+                    }
+                    if (!retry) {
+                        throw e;
+                    }
+                    if (attempt >= maxAttempts) {
+                        throw new OptimisticLockingFailureException("Stock of reservation " + reservationId + " is contended", e);
+                    }
+                }
+            } finally {
+                if (anyHot) {
+                    hotStockLedger.complete(leaseSeq, leased, written);
+                }
+            }
+            backoff(attempt);
+        }
+    }
+
+    // Hot products are answered by the local ledger; the rest read the product item
+    public Optional<ProductStock> getAvailability(String productId) {
+        Optional<ProductStock> estimate = hotStockLedger.estimate(productId);
+        return estimate.isPresent() ? estimate : inventoryRepository.findStock(productId);
+    }
+
+    public boolean commit(String reservationId) {
+        boolean committed = inventoryRepository.commitReservation(reservationId);
+        if (committed) {
+            committedCounter.increment();
+        }
+        return committed;
+    }
+
+    // Returns the held units to the counters they were taken from. False if the reservation does not
+    // exist or was already committed or released.
+    public boolean release(String reservationId) {
+        Optional<Reservation> reservation = inventoryRepository.findReservation(reservationId);
+        if (reservation.isEmpty() || reservation.get().status() != Reservation.Status.PENDING) {
+            return false;
+        }
+
+        // Leased units go back to the shared counters, not to the lease they came from
+        List<ReservedStock> stock = new ArrayList<>();
+        for (ReservedStock line : reservation.get().stock()) {
+            if (line.isLeased()) {
+                redirect(line).ifPresent(stock::add);
+            } else {
+                stock.add(line);
+            }
+        }
+        for (int attempt = 1; ; attempt++) {
+            List<TransactWriteItem> writes = new ArrayList<>(stock.size() + 1);
+            writes.add(inventoryRepository.completeReservation(reservationId, Reservation.Status.RELEASED));
+            stock.forEach(line -> writes.add(inventoryRepository.increment(line)));
+
+            try {
+                inventoryRepository.transact(writes);
+                (reservation.get().expiresAt().isBefore(Instant.now()) ? expiredCounter : releasedCounter).increment();
+                return true;
+            } catch (TransactionCanceledException e) {
+                List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                if (failed(reasons, 0, CONDITIONAL_CHECK_FAILED)) {
+                    // Committed or released concurrently
+                    return false;
+                }
+
+                boolean retry = reasons.stream().anyMatch(reason -> TRANSACTION_CONFLICT.equals(reason.code()));
+                List<ReservedStock> redirected = new ArrayList<>(stock.size());
+                for (int i = 0; i < stock.size(); i++) {
+                    ReservedStock line = stock.get(i);
+                    if (failed(reasons, i + 1, CONDITIONAL_CHECK_FAILED)) {
+                        retry = true;
+                        redirect(line).ifPresentOrElse(redirected::add, () ->
+                                logger.warn("Dropping {} reserved units of deleted product {}", line.quantity(), line.productId()));
+                    } else {
+                        redirected.add(line);
+                    }
+                }
+                if (!retry) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    throw new OptimisticLockingFailureException("Stock of reservation " + reservationId + " is contended", e);
+                }
+                stock = redirected;
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Splits the current stock of a hot product evenly over `shards` counters, so concurrent
+    // checkouts of it spread over several partitions instead of queueing on one item
+    public void enableSharding(String productId, int shards) {
+        if (shards < 2 || shards > maxStockShards) {
+            throw new IllegalArgumentException("Shard count must be between 2 and " + maxStockShards);
+        }
+        ProductStock stock = inventoryRepository.findStock(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown product " + productId));
+        if (stock.isSharded()) {
+            throw new IllegalStateException("Stock of product " + productId + " is already sharded");
+        }
+
+        List<TransactWriteItem> writes = new ArrayList<>(shards + 2);
+        writes.add(inventoryRepository.enableShards(productId, stock, shards));
+        long quantity = Math.max(0, stock.quantity());
+        for (int shard = 0; shard < shards; shard++) {
+            writes.add(inventoryRepository.putShard(productId, shard, quantity / shards + (shard < quantity % shards ? 1 : 0)));
+        }
+        writes.add(inventoryRepository.registerSharded(productId, true));
+        transactOrConflict(writes, productId);
+        logger.info("Sharded stock of product {} ({} units) over {} counters", productId, quantity, shards);
+    }
+
+    // Sums the shards back into the product item
+    public void disableSharding(String productId) {
+        ProductStock stock = inventoryRepository.findStock(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown product " + productId));
+        if (!stock.isSharded()) {
+            return;
+        }
+
+        Map<Integer, Long> shards = inventoryRepository.findShards(productId);
+        long total = shards.values().stream().mapToLong(Long::longValue).sum();
+        List<TransactWriteItem> writes = new ArrayList<>(shards.size() + 2);
+        writes.add(inventoryRepository.disableShards(productId, stock.shards(), total));
+        shards.forEach((shard, available) -> writes.add(inventoryRepository.deleteShard(productId, shard, available)));
+        writes.add(inventoryRepository.registerSharded(productId, false));
+        transactOrConflict(writes, productId);
+        logger.info("Merged {} stock shards of product {} back into {} units", shards.size(), productId, total);
+    }
+
+    private void transactOrConflict(List<TransactWriteItem> writes, String productId) {
+        try {
+            inventoryRepository.transact(writes);
+        } catch (TransactionCanceledException e) {
+            throw new OptimisticLockingFailureException("Stock of product " + productId + " changed concurrently", e);
+        }
+    }
+
+    private Map<String, Integer> merge(List<ReservationLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("A reservation needs at least one product");
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (ReservationLine line : lines) {
+            if (line.productId() == null || line.quantity() <= 0) {
+                throw new IllegalArgumentException("Every line needs a product and a positive quantity");
+            }
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Decides which counters each product is taken from. Hot products are taken from this pod's
+    // leased stock when it can cover them (recorded in `leased`); other sharded products take from one
+    // random shard that can cover the quantity, or from the fullest shards when none can alone.
+    private List<ReservedStock> allocate(Map<String, Integer> quantities, Map<String, Integer> leased) {
+        List<ReservedStock> stock = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            if (leased != null && hotStockLedger.take(productId, quantity)) {
+                leased.put(productId, quantity);
+                stock.add(ReservedStock.leased(productId, quantity));
+                return;
+            }
+
+            ProductStock current = inventoryRepository.findStock(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown product " + productId));
+            if (!current.isSharded()) {
+                stock.add(ReservedStock.unsharded(productId, quantity));
+                return;
+            }
+
+            List<Map.Entry<Integer, Long>> shards = new ArrayList<>(inventoryRepository.findShards(productId).entrySet());
+            Collections.shuffle(shards, ThreadLocalRandom.current());
+            Optional<Map.Entry<Integer, Long>> single = shards.stream()
+                    .filter(shard -> shard.getValue() >= quantity)
+                    .findFirst();
+            if (single.isPresent()) {
+                stock.add(new ReservedStock(productId, single.get().getKey(), quantity));
+                return;
+            }
+
+            shards.sort(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder()));
+            int remaining = quantity;
+            for (Map.Entry<Integer, Long> shard : shards) {
+                if (remaining == 0 || shard.getValue() <= 0) {
+                    break;
+                }
+                int taken = (int) Math.min(remaining, shard.getValue());
+                stock.add(new ReservedStock(productId, shard.getKey(), taken));
+                remaining -= taken;
+            }
+            if (remaining > 0) {
+                insufficientCounter.increment();
+                throw new InsufficientStockException(productId, quantity);
+            }
+        });
+        return stock;
+    }
+
+    // Where units that could not be returned to their original counter go now; empty if the product is gone
+    private Optional<ReservedStock> redirect(ReservedStock line) {
+        return inventoryRepository.findStock(line.productId()).map(current -> current.isSharded()
+                ? new ReservedStock(line.productId(), ThreadLocalRandom.current().nextInt(current.shards()), line.quantity())
+                : ReservedStock.unsharded(line.productId(), line.quantity()));
+    }
+
+    // A retry of a reservation that is still held gets the original back; one that was committed,
+    // released or has expired out of the table is a conflict rather than a new hold
+    private Reservation existing(String reservationId) {
+        Reservation reservation = inventoryRepository.findReservation(reservationId)
+                .orElseThrow(() -> new ReservationConflictException(reservationId, null));
+        if (reservation.status() != Reservation.Status.PENDING) {
+            throw new ReservationConflictException(reservationId, reservation.status());
+        }
+        if (!Instant.now().isBefore(reservation.expiresAt())) {
+            // Past its hold and about to be released by the expiry sweep
+            throw new ReservationConflictException(reservationId, Reservation.Status.RELEASED);
+        }
+        return reservation;
+    }
+
+    private boolean failed(List<CancellationReason> reasons, int index, String code) {
+        return index < reasons.size() && code.equals(reasons.get(index).code());
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(Math.min(1000, 20L << attempt) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reservation was interrupted", e);
+        }
+    }
+
+    private Counter reservationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("products.inventory.reservations")
+                .description("Stock reservations, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.products.inventory;
+
+import java.time.Instant;
+import java.util.List;
+
+// Stock held for a checkout. PENDING holds expire back into stock at expiresAt unless committed first.
+public record Reservation(String reservationId, Status status, List<ReservedStock> stock, Instant expiresAt) {
+
+    public enum Status {
+        PENDING, COMMITTED, RELEASED
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.products.inventory;
+
+// A reservation id that was already used for a hold that is no longer pending. The status is null
+// once the reservation record has expired out of the table.
+public class ReservationConflictException extends RuntimeException {
+
+    private final String reservationId;
+    private final Reservation.Status status;
+
+    public ReservationConflictException(String reservationId, Reservation.Status status) {
+        super(status != null
+                ? "Reservation " + reservationId + " is already " + status
+                : "Reservation " + reservationId + " no longer exists");
+        this.reservationId = reservationId;
+        this.status = status;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public Reservation.Status getStatus() {
+        return status;
+    }
+}
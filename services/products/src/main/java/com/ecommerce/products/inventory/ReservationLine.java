@@ -0,0 +1,5 @@
+package com.ecommerce.products.inventory;
+
+// One product and how many units of it a checkout wants to hold
+public record ReservationLine(String productId, int quantity) {
+}
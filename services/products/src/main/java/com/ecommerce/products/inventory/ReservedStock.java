@@ -0,0 +1,25 @@
+package com.ecommerce.products.inventory;
+
+// Units taken from one stock counter: the product item itself, one shard of a hot product, or the
+// stock this pod leased for a hot product (see HotStockLedger)
+public record ReservedStock(String productId, int shard, int quantity) {
+
+    public static final int UNSHARDED = -1;
+    public static final int LEASED = -2;
+
+    public static ReservedStock unsharded(String productId, int quantity) {
+        return new ReservedStock(productId, UNSHARDED, quantity);
+    }
+
+    public static ReservedStock leased(String productId, int quantity) {
+        return new ReservedStock(productId, LEASED, quantity);
+    }
+
+    public boolean isSharded() {
+        return shard >= 0;
+    }
+
+    public boolean isLeased() {
+        return shard == LEASED;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.products.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Non-negative counter split over padded stripes, so threads taking units mostly CAS on their own
+// cache line. A take that its home stripe cannot cover borrows from the others, and puts back what
+// it borrowed if all stripes together still fall short.
+class StripedCounter {
+
+    // 64-byte cache lines hold 8 longs; stripes sit one line apart
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedCounter(int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+    }
+
+    boolean tryTake(long units) {
+        int home = homeStripe();
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < units; i++) {
+            taken += takeUpTo((home + i) % stripes, units - taken);
+        }
+        if (taken < units) {
+            if (taken > 0) {
+                add(taken);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    void add(long units) {
+        cells.addAndGet(homeStripe() * PADDING, units);
+    }
+
+    // Takes everything, e.g. to hand a lease back; concurrent takes may still win some units
+    long drain() {
+        long drained = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            drained += cells.getAndSet(stripe * PADDING, 0);
+        }
+        return drained;
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            sum += cells.get(stripe * PADDING);
+        }
+        return sum;
+    }
+
+    private long takeUpTo(int stripe, long wanted) {
+        int index = stripe * PADDING;
+        while (true) {
+            long current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            long taken = Math.min(current, wanted);
+            if (cells.compareAndSet(index, current, current - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    private int homeStripe() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ecommerce.products.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+// An amount in the minor units of its currency (cents for USD), so price arithmetic and comparisons
+// are plain long operations instead of BigDecimal allocations. Stored and serialized as the same
+// decimal number a BigDecimal price was, e.g. 19.99, so items, indexes and API clients see no change.
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(long minorUnits, String currency) implements Comparable<Money> {
+
+    // The catalog is priced in one currency; stored prices are bare numbers in it
+    public static final String CATALOG_CURRENCY = "USD";
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    // Rounds half up to the currency's minor unit
+    public static Money of(BigDecimal amount, String currency) {
+        int digits = fractionDigits(currency);
+        return new Money(amount.setScale(digits, RoundingMode.HALF_UP).unscaledValue().longValueExact(), currency);
+    }
+
+    // Parses a decimal number such as "19.99" or "-5" without going through BigDecimal; digits past
+    // the currency's minor unit round half up
+    public static Money parse(CharSequence text, String currency) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == 'e' || c == 'E') {
+                return of(new BigDecimal(text.toString()), currency);
+            }
+        }
+
+        int digits = fractionDigits(currency);
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long units = 0;
+        int fraction = -1;
+        boolean roundUp = false;
+        boolean anyDigit = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a decimal amount: " + text);
+            }
+            anyDigit = true;
+            if (fraction >= digits) {
+                // Only the first digit past the minor unit decides the rounding
+                if (fraction == digits) {
+                    roundUp = c >= '5';
+                }
+                fraction++;
+                continue;
+            }
+            units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+            if (fraction >= 0) {
+                fraction++;
+            }
+        }
+        if (!anyDigit) {
+            throw new NumberFormatException("Not a decimal amount: " + text);
+        }
+
+        int scaled = Math.max(fraction, 0);
+        units = Math.multiplyExact(units, POWERS_OF_TEN[digits - Math.min(scaled, digits)]);
+        if (roundUp) {
+            units = Math.addExact(units, 1);
+        }
+        return new Money(negative ? -units : units, currency);
+    }
+
+    public static int fractionDigits(String currency) {
+        // Pseudo-currencies report -1; treat them as having no minor unit
+        return Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    // Whole percent this amount is below `original`, rounded half up; 0 unless it is below
+    public int percentOff(Money original) {
+        requireSameCurrency(original);
+        if (original.minorUnits <= 0 || minorUnits >= original.minorUnits) {
+            return 0;
+        }
+        long off = original.minorUnits - minorUnits;
+        return (int) ((Math.multiplyExact(off, 200) + original.minorUnits) / (2 * original.minorUnits));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    // The amount as a plain decimal number, e.g. "19.99" or "-0.05"
+    public String toPlainString() {
+        int digits = fractionDigits(currency);
+        if (digits == 0) {
+            return Long.toString(minorUnits);
+        }
+        long divisor = POWERS_OF_TEN[digits];
+        long whole = Math.abs(minorUnits / divisor);
+        long fraction = Math.abs(minorUnits % divisor);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(whole).append('.');
+        for (long pad = divisor / 10; pad > 1 && fraction < pad; pad /= 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " and " + other.currency + " amounts");
+        }
+    }
+
+    // Writes the bare decimal number, as a BigDecimal price was written
+    public static class Serializer extends StdSerializer<Money> {
+
+        public Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.toPlainString());
+        }
+    }
+
+    // Accepts a JSON number or numeric string in the catalog currency
+    public static class Deserializer extends StdDeserializer<Money> {
+
+        public Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            try {
+                return parse(parser.getText().trim(), CATALOG_CURRENCY);
+            } catch (NumberFormatException | ArithmeticException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+            }
+        }
+    }
+}
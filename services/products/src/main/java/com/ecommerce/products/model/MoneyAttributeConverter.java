@@ -0,0 +1,31 @@
+package com.ecommerce.products.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Stores prices as the plain DynamoDB number they always were, so existing items and the
+// category-price-index sort order are unaffected
+public class MoneyAttributeConverter implements AttributeConverter<Money> {
+
+    @Override
+    public AttributeValue transformFrom(Money input) {
+        return AttributeValue.builder().n(input.toPlainString()).build();
+    }
+
+    @Override
+    public Money transformTo(AttributeValue input) {
+        return Money.parse(input.n(), Money.CATALOG_CURRENCY);
+    }
+
+    @Override
+    public EnhancedType<Money> type() {
+        return EnhancedType.of(Money.class);
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.N;
+    }
+}
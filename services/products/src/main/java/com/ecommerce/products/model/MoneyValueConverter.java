@@ -0,0 +1,18 @@
+package com.ecommerce.products.model;
+
+import org.springframework.data.elasticsearch.core.mapping.PropertyValueConverter;
+
+// Keeps prices a double field in the search index
+public class MoneyValueConverter implements PropertyValueConverter {
+
+    @Override
+    public Object write(Object value) {
+        Money money = (Money) value;
+        return (double) money.minorUnits() / Math.pow(10, Money.fractionDigits(money.currency()));
+    }
+
+    @Override
+    public Object read(Object value) {
+        return Money.parse(value.toString(), Money.CATALOG_CURRENCY);
+    }
+}
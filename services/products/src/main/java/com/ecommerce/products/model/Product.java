@@ -1,12 +1,14 @@
 package com.ecommerce.products.model;
 
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.ValueConverter;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
@@ -14,24 +16,30 @@ import java.util.HashSet;
 import java.util.ArrayList;
 
 @DynamoDbBean
-@Document(indexName = "products")
+// The index is created by ProductIndexer once the application is ready
+@Document(indexName = "products", createIndex = false)
 public class Product {
     
     private String productId;
     private String name;
     private String description;
     private String shortDescription;
-    private BigDecimal price;
-    private BigDecimal originalPrice;
+    // @ValueConverter only applies to fields, unlike the getter annotations below
+    @ValueConverter(MoneyValueConverter.class)
+    private Money price;
+    @ValueConverter(MoneyValueConverter.class)
+    private Money originalPrice;
     private String category;
     private String brand;
     private String sku;
     private Integer stockQuantity;
     private Integer minStockLevel;
+    private Integer stockShards;
     private Boolean active;
     private Boolean featured;
     private Double rating;
     private Integer reviewCount;
+    private Long revision;
     private List<String> imageUrls;
     private Set<String> tags;
     private ProductDimensions dimensions;
@@ -39,6 +47,7 @@ public class Product {
     private String color;
     private String size;
     private Instant createdAt;
+    private Long createdAtMillis;
     private Instant updatedAt;
     private String createdBy;
     private String updatedBy;
@@ -56,6 +65,7 @@ public class Product {
         this.minStockLevel = 5;
     }
 
+    @Id
     @DynamoDbPartitionKey
     @DynamoDbAttribute("productId")
     @Field(type = FieldType.Keyword)
@@ -67,7 +77,6 @@ public class Product {
         this.productId = productId;
     }
 
-    @DynamoDbSecondaryPartitionKey(indexNames = {"category-index", "name-index"})
     @DynamoDbAttribute("name")
     @NotBlank(message = "Product name is required")
     @Size(min = 2, max = 200, message = "Product name must be between 2 and 200 characters")
@@ -102,29 +111,31 @@ public class Product {
         this.shortDescription = shortDescription;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = "category-price-index")
     @DynamoDbAttribute("price")
+    @DynamoDbConvertedBy(MoneyAttributeConverter.class)
     @NotNull(message = "Price is required")
-    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
     @Field(type = FieldType.Double)
-    public BigDecimal getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(BigDecimal price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
     @DynamoDbAttribute("originalPrice")
+    @DynamoDbConvertedBy(MoneyAttributeConverter.class)
     @Field(type = FieldType.Double)
-    public BigDecimal getOriginalPrice() {
+    public Money getOriginalPrice() {
         return originalPrice;
     }
 
-    public void setOriginalPrice(BigDecimal originalPrice) {
+    public void setOriginalPrice(Money originalPrice) {
         this.originalPrice = originalPrice;
     }
 
-    @DynamoDbSecondaryPartitionKey(indexNames = "category-index")
+    @DynamoDbSecondaryPartitionKey(indexNames = {"category-created-index", "category-price-index", "category-rating-index"})
     @DynamoDbAttribute("category")
     @NotBlank(message = "Category is required")
     @Field(type = FieldType.Keyword)
@@ -146,6 +157,7 @@ public class Product {
         this.brand = brand;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = "sku-index")
     @DynamoDbAttribute("sku")
     @NotBlank(message = "SKU is required")
     @Field(type = FieldType.Keyword)
@@ -178,6 +190,18 @@ public class Product {
         this.minStockLevel = minStockLevel;
     }
 
+    // Set while the stock of a hot product is split across counters in product-stock-shards; the
+    // stockQuantity above is then a periodically refreshed total, not the number reservations check
+    @DynamoDbAttribute("stockShards")
+    @JsonIgnore
+    public Integer getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(Integer stockShards) {
+        this.stockShards = stockShards;
+    }
+
     @DynamoDbAttribute("active")
     @Field(type = FieldType.Boolean)
     public Boolean getActive() {
@@ -198,6 +222,7 @@ public class Product {
         this.featured = featured;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = "category-rating-index")
     @DynamoDbAttribute("rating")
     @DecimalMin(value = "0.0", message = "Rating cannot be negative")
     @DecimalMax(value = "5.0", message = "Rating cannot exceed 5.0")
@@ -221,6 +246,18 @@ public class Product {
         this.reviewCount = reviewCount;
     }
 
+    // Bumped by every partial update (stock counters, backfills) that leaves updatedAt alone, so
+    // the search index can tell those writes apart; see ProductChange.version
+    @DynamoDbAttribute("revision")
+    @JsonIgnore
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
     @DynamoDbAttribute("imageUrls")
     @Field(type = FieldType.Keyword)
     public List<String> getImageUrls() {
@@ -291,6 +328,20 @@ public class Product {
         this.createdAt = createdAt;
     }
 
+    // Numeric copy of createdAt for the category-created-index sort key; the ISO string form does not
+    // sort chronologically because it drops trailing zeros from the fraction. Derived from createdAt
+    // when there is one, whichever of the two the mapper applied last.
+    @DynamoDbSecondarySortKey(indexNames = "category-created-index")
+    @DynamoDbAttribute("createdAtMillis")
+    @JsonIgnore
+    public Long getCreatedAtMillis() {
+        return createdAt != null ? createdAt.toEpochMilli() : createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(Long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+
     @DynamoDbAttribute("updatedAt")
     @Field(type = FieldType.Date)
     public Instant getUpdatedAt() {
@@ -328,15 +379,18 @@ public class Product {
         return stockQuantity != null && stockQuantity <= minStockLevel;
     }
 
+    @JsonIgnore
+    @AssertTrue(message = "Price must be greater than 0")
+    public boolean isPricePositive() {
+        return price == null || price.isPositive();
+    }
+
     public boolean isOnSale() {
-        return originalPrice != null && originalPrice.compareTo(price) > 0;
+        return originalPrice != null && price != null && originalPrice.isGreaterThan(price);
     }
 
-    public BigDecimal getDiscountPercentage() {
-        if (!isOnSale()) return BigDecimal.ZERO;
-        return originalPrice.subtract(price)
-                .divide(originalPrice, 2, BigDecimal.ROUND_HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
+    public int getDiscountPercentage() {
+        return isOnSale() ? price.percentOff(originalPrice) : 0;
     }
 
     public void addTag(String tag) {
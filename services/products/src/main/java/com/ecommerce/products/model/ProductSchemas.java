@@ -0,0 +1,166 @@
+package com.ecommerce.products.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondarySortKey;
+
+// Hand-built equivalents of TableSchema.fromBean for Product, ProductDimensions and ProductSummary,
+// so no bean introspection happens at startup and items map through plain method references.
+// Attributes are listed alphabetically, like the bean schema, but the order carries no meaning:
+// items are mapped in the order of their attribute map, so the derived createdAtMillis is computed
+// in its getter. Keep these in sync with the @DynamoDbAttribute getters.
+public final class ProductSchemas {
+
+    private static final MoneyAttributeConverter MONEY = new MoneyAttributeConverter();
+
+    public static final TableSchema<ProductDimensions> DIMENSIONS = StaticTableSchema.builder(ProductDimensions.class)
+            .newItemSupplier(ProductDimensions::new)
+            .addAttribute(Double.class, a -> a.name("height")
+                    .getter(ProductDimensions::getHeight)
+                    .setter(ProductDimensions::setHeight))
+            .addAttribute(Double.class, a -> a.name("length")
+                    .getter(ProductDimensions::getLength)
+                    .setter(ProductDimensions::setLength))
+            .addAttribute(String.class, a -> a.name("unit")
+                    .getter(ProductDimensions::getUnit)
+                    .setter(ProductDimensions::setUnit))
+            .addAttribute(Double.class, a -> a.name("width")
+                    .getter(ProductDimensions::getWidth)
+                    .setter(ProductDimensions::setWidth))
+            .build();
+
+    public static final TableSchema<Product> PRODUCT = StaticTableSchema.builder(Product.class)
+            .newItemSupplier(Product::new)
+            .addAttribute(Boolean.class, a -> a.name("active")
+                    .getter(Product::getActive)
+                    .setter(Product::setActive))
+            .addAttribute(String.class, a -> a.name("brand")
+                    .getter(Product::getBrand)
+                    .setter(Product::setBrand))
+            .addAttribute(String.class, a -> a.name("category")
+                    .getter(Product::getCategory)
+                    .setter(Product::setCategory)
+                    .tags(secondaryPartitionKey(List.of("category-created-index", "category-price-index", "category-rating-index"))))
+            .addAttribute(String.class, a -> a.name("color")
+                    .getter(Product::getColor)
+                    .setter(Product::setColor))
+            .addAttribute(Instant.class, a -> a.name("createdAt")
+                    .getter(Product::getCreatedAt)
+                    .setter(Product::setCreatedAt))
+            .addAttribute(Long.class, a -> a.name("createdAtMillis")
+                    .getter(Product::getCreatedAtMillis)
+                    .setter(Product::setCreatedAtMillis)
+                    .tags(secondarySortKey("category-created-index")))
+            .addAttribute(String.class, a -> a.name("createdBy")
+                    .getter(Product::getCreatedBy)
+                    .setter(Product::setCreatedBy))
+            .addAttribute(String.class, a -> a.name("description")
+                    .getter(Product::getDescription)
+                    .setter(Product::setDescription))
+            .addAttribute(EnhancedType.documentOf(ProductDimensions.class, DIMENSIONS), a -> a.name("dimensions")
+                    .getter(Product::getDimensions)
+                    .setter(Product::setDimensions))
+            .addAttribute(Boolean.class, a -> a.name("featured")
+                    .getter(Product::getFeatured)
+                    .setter(Product::setFeatured))
+            .addAttribute(EnhancedType.listOf(String.class), a -> a.name("imageUrls")
+                    .getter(Product::getImageUrls)
+                    .setter(Product::setImageUrls))
+            .addAttribute(Integer.class, a -> a.name("minStockLevel")
+                    .getter(Product::getMinStockLevel)
+                    .setter(Product::setMinStockLevel))
+            .addAttribute(String.class, a -> a.name("name")
+                    .getter(Product::getName)
+                    .setter(Product::setName))
+            .addAttribute(Money.class, a -> a.name("originalPrice")
+                    .getter(Product::getOriginalPrice)
+                    .setter(Product::setOriginalPrice)
+                    .attributeConverter(MONEY))
+            .addAttribute(Money.class, a -> a.name("price")
+                    .getter(Product::getPrice)
+                    .setter(Product::setPrice)
+                    .attributeConverter(MONEY)
+                    .tags(secondarySortKey("category-price-index")))
+            .addAttribute(String.class, a -> a.name("productId")
+                    .getter(Product::getProductId)
+                    .setter(Product::setProductId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(Double.class, a -> a.name("rating")
+                    .getter(Product::getRating)
+                    .setter(Product::setRating)
+                    .tags(secondarySortKey("category-rating-index")))
+            .addAttribute(Integer.class, a -> a.name("reviewCount")
+                    .getter(Product::getReviewCount)
+                    .setter(Product::setReviewCount))
+            .addAttribute(Long.class, a -> a.name("revision")
+                    .getter(Product::getRevision)
+                    .setter(Product::setRevision))
+            .addAttribute(String.class, a -> a.name("shortDescription")
+                    .getter(Product::getShortDescription)
+                    .setter(Product::setShortDescription))
+            .addAttribute(String.class, a -> a.name("size")
+                    .getter(Product::getSize)
+                    .setter(Product::setSize))
+            .addAttribute(String.class, a -> a.name("sku")
+                    .getter(Product::getSku)
+                    .setter(Product::setSku)
+                    .tags(secondaryPartitionKey("sku-index")))
+            .addAttribute(Integer.class, a -> a.name("stockQuantity")
+                    .getter(Product::getStockQuantity)
+                    .setter(Product::setStockQuantity))
+            .addAttribute(Integer.class, a -> a.name("stockShards")
+                    .getter(Product::getStockShards)
+                    .setter(Product::setStockShards))
+            .addAttribute(EnhancedType.setOf(String.class), a -> a.name("tags")
+                    .getter(Product::getTags)
+                    .setter(Product::setTags))
+            .addAttribute(Instant.class, a -> a.name("updatedAt")
+                    .getter(Product::getUpdatedAt)
+                    .setter(Product::setUpdatedAt))
+            .addAttribute(String.class, a -> a.name("updatedBy")
+                    .getter(Product::getUpdatedBy)
+                    .setter(Product::setUpdatedBy))
+            .addAttribute(Double.class, a -> a.name("weight")
+                    .getter(Product::getWeight)
+                    .setter(Product::setWeight))
+            .build();
+
+    public static final TableSchema<ProductSummary> SUMMARY = StaticTableSchema.builder(ProductSummary.class)
+            .newItemSupplier(ProductSummary::new)
+            .addAttribute(EnhancedType.listOf(String.class), a -> a.name("imageUrls")
+                    .getter(ProductSummary::getImageUrls)
+                    .setter(ProductSummary::setImageUrls))
+            .addAttribute(String.class, a -> a.name("name")
+                    .getter(ProductSummary::getName)
+                    .setter(ProductSummary::setName))
+            .addAttribute(Money.class, a -> a.name("originalPrice")
+                    .getter(ProductSummary::getOriginalPrice)
+                    .setter(ProductSummary::setOriginalPrice)
+                    .attributeConverter(MONEY))
+            .addAttribute(Money.class, a -> a.name("price")
+                    .getter(ProductSummary::getPrice)
+                    .setter(ProductSummary::setPrice)
+                    .attributeConverter(MONEY))
+            .addAttribute(String.class, a -> a.name("productId")
+                    .getter(ProductSummary::getProductId)
+                    .setter(ProductSummary::setProductId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(Double.class, a -> a.name("rating")
+                    .getter(ProductSummary::getRating)
+                    .setter(ProductSummary::setRating))
+            .addAttribute(Integer.class, a -> a.name("stockQuantity")
+                    .getter(ProductSummary::getStockQuantity)
+                    .setter(ProductSummary::setStockQuantity))
+            .build();
+
+    private ProductSchemas() {
+    }
+}
@@ -0,0 +1,124 @@
+package com.ecommerce.products.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.ValueConverter;
+
+import java.util.List;
+
+// Read model for category and search listings: the handful of Product attributes a product card
+// renders. Reads project only these (and only the first image URL), and the JSON exposes an
+// in-stock flag instead of the stock level.
+@DynamoDbBean
+public class ProductSummary {
+
+    // DynamoDB projection; imageUrls[0] reads just the primary image out of the list
+    public static final List<String> PROJECTION = List.of(
+            "productId", "name", "price", "originalPrice", "imageUrls[0]", "rating", "stockQuantity");
+
+    // Elasticsearch _source includes; source filtering cannot slice arrays, so the list is fetched whole
+    public static final List<String> SOURCE_FIELDS = List.of(
+            "productId", "name", "price", "originalPrice", "imageUrls", "rating", "stockQuantity");
+
+    private String productId;
+    private String name;
+    // @ValueConverter only applies to fields, unlike the getter annotations below
+    @ValueConverter(MoneyValueConverter.class)
+    private Money price;
+    @ValueConverter(MoneyValueConverter.class)
+    private Money originalPrice;
+    private List<String> imageUrls;
+    private Double rating;
+    private Integer stockQuantity;
+
+    @Id
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("productId")
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    @DynamoDbAttribute("name")
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @DynamoDbAttribute("price")
+    @DynamoDbConvertedBy(MoneyAttributeConverter.class)
+    public Money getPrice() {
+        return price;
+    }
+
+    public void setPrice(Money price) {
+        this.price = price;
+    }
+
+    @DynamoDbAttribute("originalPrice")
+    @DynamoDbConvertedBy(MoneyAttributeConverter.class)
+    public Money getOriginalPrice() {
+        return originalPrice;
+    }
+
+    public void setOriginalPrice(Money originalPrice) {
+        this.originalPrice = originalPrice;
+    }
+
+    @DynamoDbAttribute("imageUrls")
+    @JsonIgnore
+    public List<String> getImageUrls() {
+        return imageUrls;
+    }
+
+    public void setImageUrls(List<String> imageUrls) {
+        this.imageUrls = imageUrls;
+    }
+
+    @DynamoDbAttribute("rating")
+    public Double getRating() {
+        return rating;
+    }
+
+    public void setRating(Double rating) {
+        this.rating = rating;
+    }
+
+    @DynamoDbAttribute("stockQuantity")
+    @JsonIgnore
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getPrimaryImageUrl() {
+        return imageUrls != null && !imageUrls.isEmpty() ? imageUrls.get(0) : null;
+    }
+
+    public boolean isInStock() {
+        return stockQuantity != null && stockQuantity > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSummary{" +
+                "productId='" + productId + '\'' +
+                ", name='" + name + '\'' +
+                ", price=" + price +
+                ", rating=" + rating +
+                '}';
+    }
+}
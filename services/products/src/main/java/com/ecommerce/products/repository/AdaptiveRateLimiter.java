@@ -0,0 +1,48 @@
+package com.ecommerce.products.repository;
+
+import java.util.concurrent.TimeUnit;
+
+// Paces scan requests; backs off multiplicatively on throttling and recovers additively on success
+// The users and products services each carry an identical copy (only the package differs), as
+// there is no shared module; change both together.
+public class AdaptiveRateLimiter {
+
+    private final double minPermitsPerSecond;
+    private final double maxPermitsPerSecond;
+    private double permitsPerSecond;
+    private long nextFreeNanos = System.nanoTime();
+
+    public AdaptiveRateLimiter(double minPermitsPerSecond, double maxPermitsPerSecond) {
+        if (minPermitsPerSecond <= 0 || maxPermitsPerSecond < minPermitsPerSecond) {
+            throw new IllegalArgumentException("Invalid rate bounds: " + minPermitsPerSecond + ", " + maxPermitsPerSecond);
+        }
+        this.minPermitsPerSecond = minPermitsPerSecond;
+        this.maxPermitsPerSecond = maxPermitsPerSecond;
+        this.permitsPerSecond = Math.max(minPermitsPerSecond, maxPermitsPerSecond / 4);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized void onSuccess() {
+        permitsPerSecond = Math.min(maxPermitsPerSecond, permitsPerSecond + 1);
+    }
+
+    public synchronized void onThrottle() {
+        permitsPerSecond = Math.max(minPermitsPerSecond, permitsPerSecond / 2);
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
@@ -0,0 +1,363 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.inventory.Reservation;
+import com.ecommerce.products.inventory.ReservedStock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Stock counters and reservations. Every stock change is a conditional ADD on a single counter, so
+// concurrent checkouts can never take a counter below zero, and reservations are written in the
+// same transaction as the counters they take from.
+@Repository
+public class InventoryRepository {
+
+    static final String PRODUCTS_TABLE = "products";
+    static final String SHARDS_TABLE = "product-stock-shards";
+    static final String RESERVATIONS_TABLE = "inventory-reservations";
+    static final String PENDING_EXPIRY_INDEX = "pending-expiry-index";
+    static final String LEASE_INDEX = "lease-index";
+
+    // Registry of sharded products, kept in the shards table so the shard sync job can find them
+    static final String SHARDED_REGISTRY_ID = "_sharded";
+
+    // Every update of a product item bumps its revision, which versions its search document
+    private static final AttributeValue ONE = AttributeValue.builder().n("1").build();
+
+    private final DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    public InventoryRepository(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    public record ProductStock(int quantity, int shards, int minStockLevel) {
+
+        public boolean isSharded() {
+            return shards > 0;
+        }
+
+        public boolean isInStock() {
+            return quantity > 0;
+        }
+
+        public boolean isLowStock() {
+            return quantity <= minStockLevel;
+        }
+    }
+
+    // Strongly consistent, since reservations decide which counters to take from based on it
+    public Optional<ProductStock> findStock(String productId) {
+        var response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(PRODUCTS_TABLE)
+                .key(productKey(productId))
+                .projectionExpression("productId, stockQuantity, stockShards, minStockLevel")
+                .consistentRead(true)
+                .build());
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ProductStock(
+                intValue(response.item().get("stockQuantity")),
+                intValue(response.item().get("stockShards")),
+                intValue(response.item().get("minStockLevel"))));
+    }
+
+    // Available units per shard of a sharded product
+    public Map<Integer, Long> findShards(String productId) {
+        Map<Integer, Long> shards = new TreeMap<>();
+        dynamoDbClient.queryPaginator(QueryRequest.builder()
+                        .tableName(SHARDS_TABLE)
+                        .keyConditionExpression("productId = :productId")
+                        .expressionAttributeValues(Map.of(":productId", string(productId)))
+                        .consistentRead(true)
+                        .build())
+                .items()
+                .forEach(item -> shards.put(
+                        Integer.parseInt(item.get("shard").n()),
+                        Long.parseLong(item.get("available").n())));
+        return shards;
+    }
+
+    public Optional<Reservation> findReservation(String reservationId) {
+        var response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(RESERVATIONS_TABLE)
+                .key(Map.of("reservationId", string(reservationId)))
+                .consistentRead(true)
+                .build());
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toReservation(response.item()));
+    }
+
+    // Pending reservations of one index partition whose hold has run out, oldest first
+    public List<String> findExpiredReservationIds(int pendingShard, Instant now, int limit) {
+        return dynamoDbClient.query(QueryRequest.builder()
+                        .tableName(RESERVATIONS_TABLE)
+                        .indexName(PENDING_EXPIRY_INDEX)
+                        .keyConditionExpression("pendingShard = :pendingShard AND expiresAt < :now")
+                        .expressionAttributeValues(Map.of(
+                                ":pendingShard", number(pendingShard),
+                                ":now", number(now.toEpochMilli())))
+                        .limit(limit)
+                        .build())
+                .items().stream()
+                .map(item -> item.get("reservationId").s())
+                .collect(Collectors.toList());
+    }
+
+    public Set<String> findShardedProductIds() {
+        var response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(SHARDS_TABLE)
+                .key(shardKey(SHARDED_REGISTRY_ID, 0))
+                .build());
+        AttributeValue productIds = response.hasItem() ? response.item().get("productIds") : null;
+        return productIds != null ? Set.copyOf(productIds.ss()) : Collections.emptySet();
+    }
+
+    // Takes units from a counter, failing the transaction if it holds fewer. The product item only
+    // counts while the product is not sharded, so a concurrent switch to shards cannot oversell.
+    public TransactWriteItem decrement(ReservedStock stock) {
+        if (stock.isSharded()) {
+            return update(SHARDS_TABLE, shardKey(stock.productId(), stock.shard()),
+                    "ADD #available :negated",
+                    "#available >= :quantity",
+                    Map.of(":negated", number(-stock.quantity()), ":quantity", number(stock.quantity())));
+        }
+        return update(PRODUCTS_TABLE, productKey(stock.productId()),
+                "ADD stockQuantity :negated, revision :one",
+                "stockQuantity >= :quantity AND attribute_not_exists(stockShards)",
+                Map.of(":negated", number(-stock.quantity()), ":quantity", number(stock.quantity()), ":one", ONE));
+    }
+
+    // Returns units to a counter; fails if the counter no longer exists (product deleted, or sharding
+    // turned off or on since the units were taken) so the caller can pick the counter again
+    public TransactWriteItem increment(ReservedStock stock) {
+        if (stock.isSharded()) {
+            return update(SHARDS_TABLE, shardKey(stock.productId(), stock.shard()),
+                    "ADD #available :quantity",
+                    "attribute_exists(productId)",
+                    Map.of(":quantity", number(stock.quantity())));
+        }
+        return update(PRODUCTS_TABLE, productKey(stock.productId()),
+                "ADD stockQuantity :quantity, revision :one",
+                "attribute_exists(productId) AND attribute_not_exists(stockShards)",
+                Map.of(":quantity", number(stock.quantity()), ":one", ONE));
+    }
+
+    // New PENDING reservation; fails if the id was already used, which makes reserve calls idempotent.
+    // Reservations holding leased stock name the lease owner and its sequence number, which puts them
+    // into the lease-index that lease reclaim reads.
+    public TransactWriteItem putReservation(Reservation reservation, int pendingShard, Instant ttl,
+                                            String leaseOwner, long leaseSeq) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("reservationId", string(reservation.reservationId()));
+        item.put("status", string(reservation.status().name()));
+        item.put("stock", AttributeValue.builder().l(reservation.stock().stream()
+                        .map(stock -> AttributeValue.builder().m(Map.of(
+                                "productId", string(stock.productId()),
+                                "shard", number(stock.shard()),
+                                "quantity", number(stock.quantity()))).build())
+                        .collect(Collectors.toList()))
+                .build());
+        item.put("expiresAt", number(reservation.expiresAt().toEpochMilli()));
+        item.put("pendingShard", number(pendingShard));
+        item.put("createdAt", string(Instant.now().toString()));
+        item.put("ttl", number(ttl.getEpochSecond()));
+        if (leaseOwner != null) {
+            item.put("leaseOwner", string(leaseOwner));
+            item.put("leaseSeq", number(leaseSeq));
+        }
+
+        return TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(RESERVATIONS_TABLE)
+                        .item(item)
+                        .conditionExpression("attribute_not_exists(reservationId)")
+                        .build())
+                .build();
+    }
+
+    // Moves a PENDING reservation to its final status and out of the pending-expiry-index
+    public TransactWriteItem completeReservation(String reservationId, Reservation.Status status) {
+        return TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(RESERVATIONS_TABLE)
+                        .key(Map.of("reservationId", string(reservationId)))
+                        .updateExpression("SET #status = :status REMOVE pendingShard")
+                        .conditionExpression("#status = :pending")
+                        .expressionAttributeNames(Map.of("#status", "status"))
+                        .expressionAttributeValues(Map.of(
+                                ":status", string(status.name()),
+                                ":pending", string(Reservation.Status.PENDING.name())))
+                        .build())
+                .build();
+    }
+
+    public boolean commitReservation(String reservationId) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(RESERVATIONS_TABLE)
+                    .key(Map.of("reservationId", string(reservationId)))
+                    .updateExpression("SET #status = :committed REMOVE pendingShard")
+                    .conditionExpression("#status = :pending")
+                    .expressionAttributeNames(Map.of("#status", "status"))
+                    .expressionAttributeValues(Map.of(
+                            ":committed", string(Reservation.Status.COMMITTED.name()),
+                            ":pending", string(Reservation.Status.PENDING.name())))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    // Switches the product to sharded stock, as long as neither its stock nor its mode changed since
+    // `observed` was read
+    public TransactWriteItem enableShards(String productId, ProductStock observed, int shards) {
+        return update(PRODUCTS_TABLE, productKey(productId),
+                "SET stockShards = :shards ADD revision :one",
+                "stockQuantity = :observed AND attribute_not_exists(stockShards)",
+                Map.of(":shards", number(shards), ":observed", number(observed.quantity()), ":one", ONE));
+    }
+
+    // Folds the shards back into the product item, as long as its shard count is still `shards`
+    public TransactWriteItem disableShards(String productId, int shards, long total) {
+        return update(PRODUCTS_TABLE, productKey(productId),
+                "SET stockQuantity = :total REMOVE stockShards ADD revision :one",
+                "stockShards = :shards",
+                Map.of(":total", number(total), ":shards", number(shards), ":one", ONE));
+    }
+
+    public TransactWriteItem putShard(String productId, int shard, long available) {
+        return TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(SHARDS_TABLE)
+                        .item(Map.of(
+                                "productId", string(productId),
+                                "shard", number(shard),
+                                "available", number(available)))
+                        .build())
+                .build();
+    }
+
+    // Deletes a shard only if it still holds exactly what was summed into the product item
+    public TransactWriteItem deleteShard(String productId, int shard, long observed) {
+        return TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(SHARDS_TABLE)
+                        .key(shardKey(productId, shard))
+                        .conditionExpression("#available = :observed")
+                        .expressionAttributeNames(Map.of("#available", "available"))
+                        .expressionAttributeValues(Map.of(":observed", number(observed)))
+                        .build())
+                .build();
+    }
+
+    public TransactWriteItem registerSharded(String productId, boolean sharded) {
+        return TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(SHARDS_TABLE)
+                        .key(shardKey(SHARDED_REGISTRY_ID, 0))
+                        .updateExpression((sharded ? "ADD" : "DELETE") + " productIds :productId")
+                        .expressionAttributeValues(Map.of(":productId", AttributeValue.builder().ss(productId).build()))
+                        .build())
+                .build();
+    }
+
+    // Refreshes the display total of a sharded product; a no-op once it is no longer sharded, or
+    // when the total did not change, so the search index is not rewritten every sync
+    public void updateShardedTotal(String productId, long total) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(PRODUCTS_TABLE)
+                    .key(productKey(productId))
+                    .updateExpression("SET stockQuantity = :total ADD revision :one")
+                    .conditionExpression("attribute_exists(stockShards) AND stockQuantity <> :total")
+                    .expressionAttributeValues(Map.of(":total", number(total), ":one", ONE))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Unchanged, or sharding was turned off in the meantime, which already wrote the exact total
+        }
+    }
+
+    public void transact(List<TransactWriteItem> writes) {
+        dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(writes)
+                .build());
+    }
+
+    private TransactWriteItem update(String tableName, Map<String, AttributeValue> key, String updateExpression,
+                                     String conditionExpression, Map<String, AttributeValue> values) {
+        return TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(tableName)
+                        .key(key)
+                        .updateExpression(updateExpression)
+                        .conditionExpression(conditionExpression)
+                        .expressionAttributeNames(updateExpression.contains("#available")
+                                ? Map.of("#available", "available") : null)
+                        .expressionAttributeValues(values)
+                        .build())
+                .build();
+    }
+
+    private Reservation toReservation(Map<String, AttributeValue> item) {
+        List<ReservedStock> stock = item.get("stock").l().stream()
+                .map(AttributeValue::m)
+                .map(line -> new ReservedStock(
+                        line.get("productId").s(),
+                        Integer.parseInt(line.get("shard").n()),
+                        Integer.parseInt(line.get("quantity").n())))
+                .collect(Collectors.toList());
+        return new Reservation(
+                item.get("reservationId").s(),
+                Reservation.Status.valueOf(item.get("status").s()),
+                stock,
+                Instant.ofEpochMilli(Long.parseLong(item.get("expiresAt").n())));
+    }
+
+    private Map<String, AttributeValue> productKey(String productId) {
+        return Map.of("productId", string(productId));
+    }
+
+    private Map<String, AttributeValue> shardKey(String productId, int shard) {
+        return Map.of(
+                "productId", string(productId),
+                "shard", number(shard));
+    }
+
+    private int intValue(AttributeValue value) {
+        return value != null && value.n() != null ? Integer.parseInt(value.n()) : 0;
+    }
+
+    private AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
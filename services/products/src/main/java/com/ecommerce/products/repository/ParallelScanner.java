@@ -0,0 +1,138 @@
+package com.ecommerce.products.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Scans a table with DynamoDB's segment/totalSegments, one task per segment on a bounded executor.
+// Visitors are called concurrently from the segment tasks and must be thread-safe.
+// The users and products services each carry an identical copy (only the package differs), as
+// there is no shared module; change both together.
+public class ParallelScanner<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelScanner.class);
+
+    private final DynamoDbTable<T> table;
+    private final ExecutorService executor;
+    private final int totalSegments;
+    private final int pageSize;
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public ParallelScanner(DynamoDbTable<T> table, ExecutorService executor, int totalSegments,
+                           int pageSize, AdaptiveRateLimiter rateLimiter) {
+        this.table = table;
+        this.executor = executor;
+        this.totalSegments = totalSegments;
+        this.pageSize = pageSize;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public long scan(Consumer<? super T> visitor) {
+        return scanPages(Collections.emptyList(), page -> page.forEach(visitor));
+    }
+
+    public long scan(Collection<String> attributesToProject, Consumer<? super T> visitor) {
+        return scanPages(attributesToProject, page -> page.forEach(visitor));
+    }
+
+    public long scanPages(Collection<String> attributesToProject, Consumer<List<T>> pageVisitor) {
+        return scanPages(attributesToProject, null, pageVisitor);
+    }
+
+    // Returns the number of items visited; fails fast and stops the other segments if one fails. The
+    // filter only trims what is returned, every item is still read.
+    public long scanPages(Collection<String> attributesToProject, Expression filter, Consumer<List<T>> pageVisitor) {
+        AtomicLong visited = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> segments = new ArrayList<>(totalSegments);
+
+        for (int segment = 0; segment < totalSegments; segment++) {
+            int current = segment;
+            segments.add(executor.submit(() -> {
+                scanSegment(current, attributesToProject, filter, pageVisitor, visited, failed);
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> segment : segments) {
+                segment.get();
+            }
+        } catch (InterruptedException e) {
+            failed.set(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Parallel scan of " + table.tableName() + " was interrupted", e);
+        } catch (ExecutionException e) {
+            failed.set(true);
+            throw new RuntimeException("Parallel scan of " + table.tableName() + " failed", e.getCause());
+        } finally {
+            segments.forEach(segment -> segment.cancel(true));
+        }
+
+        logger.info("Scanned {} items from {} in {} segments", visited.get(), table.tableName(), totalSegments);
+        return visited.get();
+    }
+
+    private void scanSegment(int segment, Collection<String> attributesToProject, Expression filter,
+                             Consumer<List<T>> pageVisitor, AtomicLong visited, AtomicBoolean failed) throws InterruptedException {
+        Map<String, AttributeValue> startKey = null;
+
+        while (true) {
+            if (failed.get()) {
+                return;
+            }
+            rateLimiter.acquire();
+
+            var request = ScanEnhancedRequest.builder()
+                    .segment(segment)
+                    .totalSegments(totalSegments)
+                    .limit(pageSize)
+                    .exclusiveStartKey(startKey)
+                    .filterExpression(filter);
+            if (!attributesToProject.isEmpty()) {
+                request.attributesToProject(attributesToProject);
+            }
+
+            Page<T> page;
+            try {
+                page = table.scan(request.build()).iterator().next();
+                rateLimiter.onSuccess();
+            } catch (SdkServiceException e) {
+                if (!e.isThrottlingException()) {
+                    throw e;
+                }
+                // The SDK's own retries are exhausted; slow down and retry the same page
+                rateLimiter.onThrottle();
+                logger.debug("Scan of segment {} throttled, rate lowered to {}/s", segment, rateLimiter.getPermitsPerSecond());
+                continue;
+            }
+
+            if (!page.items().isEmpty()) {
+                pageVisitor.accept(page.items());
+                visited.addAndGet(page.items().size());
+            }
+            startKey = page.lastEvaluatedKey();
+            if (startKey == null) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.model.ProductSummary;
+
+import java.util.List;
+
+public class ProductPage {
+
+    private final List<ProductSummary> products;
+    private final String nextCursor;
+
+    public ProductPage(List<ProductSummary> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductSummary> getProducts() {
+        return products;
+    }
+
+    // Opaque continuation token, null once there is nothing left to read
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
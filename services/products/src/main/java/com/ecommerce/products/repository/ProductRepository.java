@@ -0,0 +1,251 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.model.ProductSchemas;
+import com.ecommerce.products.model.ProductSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+@Repository
+public class ProductRepository {
+
+    private static final int MAX_BATCH_GET_KEYS = 100;
+
+    private static final TableSchema<ProductSummary> SUMMARY_SCHEMA = ProductSchemas.SUMMARY;
+
+    private final DynamoDbTable<Product> productTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final int maxBatchAttempts;
+    private final int maxPageSize;
+
+    @Autowired
+    public ProductRepository(DynamoDbTable<Product> productTable,
+                             DynamoDbClient dynamoDbClient,
+                             @Value("${products.batch.max-attempts:8}") int maxBatchAttempts,
+                             @Value("${products.category.max-page-size:100}") int maxPageSize) {
+        this.productTable = productTable;
+        this.dynamoDbClient = dynamoDbClient;
+        this.maxBatchAttempts = maxBatchAttempts;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public Optional<Product> findById(String productId) {
+        return Optional.ofNullable(productTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(productId).build())
+                .build()));
+    }
+
+    // The sku-index only projects keys, so a SKU lookup is a one-item query followed by a get of the
+    // full product; keeping a second full copy of every product in the index is not worth it for a
+    // lookup that only admin and order flows make
+    public Optional<Product> findBySku(String sku) {
+        var queryRequest = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(sku)
+                        .build()))
+                .limit(1)
+                .build();
+
+        return productTable.index("sku-index").query(queryRequest).stream()
+                .flatMap(page -> page.items().stream())
+                .findFirst()
+                .flatMap(product -> findById(product.getProductId()));
+    }
+
+    // Summaries of the active products of a category in the requested order, `limit` at a time. The
+    // category GSIs project only the summary attributes. The cursor is the key of the last product
+    // returned, so pages never overlap even though inactive products are filtered out after the read.
+    // `limit` is clamped to 1..products.category.max-page-size.
+    public ProductPage findByCategory(String category, ProductSort sort, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        Map<String, AttributeValue> startKey = cursor != null ? decodeCursor(cursor, category, sort) : null;
+        List<String> paths = new ArrayList<>(ProductSummary.PROJECTION);
+        paths.add(sort.getSortAttribute());
+        Projection projection = projection(paths);
+
+        Map<String, String> names = new HashMap<>(projection.names());
+        names.put("#category", "category");
+        names.put("#active", "active");
+
+        List<ProductSummary> products = new ArrayList<>(pageSize);
+        Map<String, AttributeValue> lastItem = null;
+        do {
+            QueryResponse response = dynamoDbClient.query(QueryRequest.builder()
+                    .tableName(productTable.tableName())
+                    .indexName(sort.getIndexName())
+                    .keyConditionExpression("#category = :category")
+                    .filterExpression("#active = :active")
+                    .projectionExpression(projection.expression())
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(Map.of(
+                            ":category", AttributeValue.builder().s(category).build(),
+                            ":active", AttributeValue.builder().bool(true).build()))
+                    .scanIndexForward(sort.isAscending())
+                    .limit(pageSize - products.size())
+                    .exclusiveStartKey(startKey)
+                    .build());
+
+            for (Map<String, AttributeValue> item : response.items()) {
+                products.add(SUMMARY_SCHEMA.mapToItem(item));
+                lastItem = item;
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey() : null;
+        } while (products.size() < pageSize && startKey != null);
+
+        String nextCursor = null;
+        if (startKey != null && lastItem != null) {
+            nextCursor = encodeCursor(lastItem, sort);
+        }
+        return new ProductPage(products, nextCursor);
+    }
+
+    // Listing cards for an arbitrary set of products (cart, wishlist, recommendations), in id order
+    public List<ProductSummary> findSummariesByIds(Collection<String> productIds) {
+        List<String> ids = productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, ProductSummary> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_GET_KEYS) {
+            getChunk(ids.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, ids.size())), ProductSummary.PROJECTION)
+                    .forEach(item -> found.put(item.get("productId").s(), SUMMARY_SCHEMA.mapToItem(item)));
+        }
+
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<Product> findAllByIds(Collection<String> productIds) {
+        return findAllByIds(productIds, null);
+    }
+
+    // BatchGetItem in chunks of 100 keys, reading only `attributes` when given. Results keep the order
+    // of `productIds`; ids that do not exist are left out.
+    public List<Product> findAllByIds(Collection<String> productIds, List<String> attributes) {
+        List<String> ids = productIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Product> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_GET_KEYS) {
+            getChunk(ids.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, ids.size())), attributes)
+                    .forEach(item -> found.put(item.get("productId").s(), productTable.tableSchema().mapToItem(item)));
+        }
+
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Map<String, AttributeValue>> getChunk(List<String> productIds, List<String> attributes) {
+        var keysAndAttributes = KeysAndAttributes.builder()
+                .keys(productIds.stream()
+                        .map(productId -> Map.of("productId", AttributeValue.builder().s(productId).build()))
+                        .collect(Collectors.toList()));
+        if (attributes != null && !attributes.isEmpty()) {
+            Projection projection = projection(attributes);
+            keysAndAttributes.projectionExpression(projection.expression())
+                    .expressionAttributeNames(projection.names());
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>(productIds.size());
+        Map<String, KeysAndAttributes> requestItems = Map.of(productTable.tableName(), keysAndAttributes.build());
+        for (int attempt = 1; !requestItems.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                backoff(attempt);
+            }
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(requestItems)
+                    .build());
+            items.addAll(response.responses().getOrDefault(productTable.tableName(), Collections.emptyList()));
+            requestItems = response.unprocessedKeys();
+        }
+        return items;
+    }
+
+    private void backoff(int attempt) {
+        if (attempt > maxBatchAttempts) {
+            throw new IllegalStateException("BatchGetItem still had unprocessed keys after " + maxBatchAttempts + " attempts");
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(Math.min(2000, 25L << (attempt - 2)) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("BatchGetItem was interrupted", e);
+        }
+    }
+
+    // Placeholders for every top-level attribute, since some (name, size) are reserved words. Paths may
+    // address a list element, e.g. imageUrls[0].
+    private Projection projection(Collection<String> paths) {
+        Map<String, String> names = new LinkedHashMap<>();
+        List<String> expressions = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            int index = path.indexOf('[');
+            String attribute = index < 0 ? path : path.substring(0, index);
+            names.put("#" + attribute, attribute);
+            String expression = "#" + path;
+            if (!expressions.contains(expression)) {
+                expressions.add(expression);
+            }
+        }
+        return new Projection(String.join(", ", expressions), names);
+    }
+
+    private String encodeCursor(Map<String, AttributeValue> last, ProductSort sort) {
+        String cursor = last.get("productId").s() + "|" + last.get(sort.getSortAttribute()).n();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, AttributeValue> decodeCursor(String cursor, String category, ProductSort sort) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Map.of(
+                    "productId", AttributeValue.builder().s(decoded.substring(0, separator)).build(),
+                    "category", AttributeValue.builder().s(category).build(),
+                    sort.getSortAttribute(), AttributeValue.builder().n(decoded.substring(separator + 1)).build());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private record Projection(String expression, Map<String, String> names) {
+    }
+}
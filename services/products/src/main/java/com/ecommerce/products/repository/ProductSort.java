@@ -0,0 +1,32 @@
+package com.ecommerce.products.repository;
+
+// Orderings served by a category GSI; each names the index and the sort key it reads
+public enum ProductSort {
+
+    PRICE_ASC("category-price-index", "price", true),
+    PRICE_DESC("category-price-index", "price", false),
+    RATING_DESC("category-rating-index", "rating", false),
+    NEWEST("category-created-index", "createdAtMillis", false);
+
+    private final String indexName;
+    private final String sortAttribute;
+    private final boolean ascending;
+
+    ProductSort(String indexName, String sortAttribute, boolean ascending) {
+        this.indexName = indexName;
+        this.sortAttribute = sortAttribute;
+        this.ascending = ascending;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public String getSortAttribute() {
+        return sortAttribute;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+}
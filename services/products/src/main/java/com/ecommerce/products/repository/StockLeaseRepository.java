@@ -0,0 +1,216 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.inventory.ReservedStock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Blocks of hot-product stock leased by individual pods. Leasing moves units out of the shared
+// counters into a lease item, so a pod can sell them without touching the shared counters, and no
+// two pods can ever sell the same unit. `units` is what the lease still holds as of the owner's
+// last flush, `flushedSeq` the last reservation sequence number that flush accounted for.
+@Repository
+public class StockLeaseRepository {
+
+    static final String TABLE_NAME = "stock-leases";
+
+    // Lease items outlive their expiry long enough to be reclaimed, then TTL removes leftovers
+    private static final Duration LEASE_RETENTION = Duration.ofDays(1);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final InventoryRepository inventoryRepository;
+
+    @Autowired
+    public StockLeaseRepository(DynamoDbClient dynamoDbClient, InventoryRepository inventoryRepository) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    public record Lease(String productId, String owner, long units, long flushedSeq, Instant leasedUntil) {
+    }
+
+    public List<Lease> findLeases(String productId) {
+        List<Lease> leases = new ArrayList<>();
+        dynamoDbClient.queryPaginator(QueryRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .keyConditionExpression("productId = :productId")
+                        .expressionAttributeValues(Map.of(":productId", string(productId)))
+                        .consistentRead(true)
+                        .build())
+                .items()
+                .forEach(item -> leases.add(new Lease(
+                        productId,
+                        item.get("owner").s(),
+                        longValue(item.get("units")),
+                        longValue(item.get("flushedSeq")),
+                        Instant.ofEpochMilli(longValue(item.get("leasedUntil"))))));
+        return leases;
+    }
+
+    // Moves `units` from a stock counter into the owner's lease; false if the counter holds fewer, or
+    // if the lease does not (or, for `create`, already does) exist. A new lease starts out as flushed
+    // up to `flushedSeq`.
+    public boolean allocate(ReservedStock from, String owner, boolean create, long flushedSeq, Instant leasedUntil) {
+        try {
+            inventoryRepository.transact(List.of(
+                    inventoryRepository.decrement(from),
+                    TransactWriteItem.builder()
+                            .update(Update.builder()
+                                    .tableName(TABLE_NAME)
+                                    .key(leaseKey(from.productId(), owner))
+                                    .updateExpression("ADD units :units SET leasedUntil = :leasedUntil, "
+                                            + "flushedSeq = if_not_exists(flushedSeq, :flushedSeq), #ttl = :ttl")
+                                    .conditionExpression(create ? "attribute_not_exists(productId)" : "attribute_exists(productId)")
+                                    .expressionAttributeNames(Map.of("#ttl", "ttl"))
+                                    .expressionAttributeValues(Map.of(
+                                            ":units", number(from.quantity()),
+                                            ":leasedUntil", number(leasedUntil.toEpochMilli()),
+                                            ":flushedSeq", number(flushedSeq),
+                                            ":ttl", number(leasedUntil.plus(LEASE_RETENTION).getEpochSecond())))
+                                    .build())
+                            .build()));
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
+    }
+
+    // Accounts for `sold` units taken by reservations up to `flushedSeq` and renews the lease; false
+    // if the lease is gone, i.e. it expired and was reclaimed by another pod
+    public boolean flush(String productId, String owner, long sold, long flushedSeq, Instant leasedUntil) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(leaseKey(productId, owner))
+                    .updateExpression("ADD units :negated SET flushedSeq = :flushedSeq, leasedUntil = :leasedUntil, #ttl = :ttl")
+                    .conditionExpression("attribute_exists(productId) AND units >= :sold")
+                    .expressionAttributeNames(Map.of("#ttl", "ttl"))
+                    .expressionAttributeValues(Map.of(
+                            ":negated", number(-sold),
+                            ":sold", number(sold),
+                            ":flushedSeq", number(flushedSeq),
+                            ":leasedUntil", number(leasedUntil.toEpochMilli()),
+                            ":ttl", number(leasedUntil.plus(LEASE_RETENTION).getEpochSecond())))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    // Hands `units` of a live lease back to a stock counter
+    public boolean giveBack(String owner, ReservedStock to) {
+        try {
+            inventoryRepository.transact(List.of(
+                    TransactWriteItem.builder()
+                            .update(Update.builder()
+                                    .tableName(TABLE_NAME)
+                                    .key(leaseKey(to.productId(), owner))
+                                    .updateExpression("ADD units :negated")
+                                    .conditionExpression("units >= :units")
+                                    .expressionAttributeValues(Map.of(
+                                            ":negated", number(-to.quantity()),
+                                            ":units", number(to.quantity())))
+                                    .build())
+                            .build(),
+                    inventoryRepository.increment(to)));
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
+    }
+
+    // Deletes the owner's own lease once it is drained; false if units are still in it
+    public boolean release(String productId, String owner) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(leaseKey(productId, owner))
+                    .conditionExpression("attribute_not_exists(productId) OR units = :zero")
+                    .expressionAttributeValues(Map.of(":zero", number(0)))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    // Deletes an expired (or a pod's own, left behind) lease and returns its unsold units to a stock
+    // counter. Conditional on the lease not having changed since it was read.
+    public boolean reclaim(Lease lease, ReservedStock to) {
+        List<TransactWriteItem> writes = new ArrayList<>(2);
+        writes.add(TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(TABLE_NAME)
+                        .key(leaseKey(lease.productId(), lease.owner()))
+                        .conditionExpression("units = :units AND flushedSeq = :flushedSeq")
+                        .expressionAttributeValues(Map.of(
+                                ":units", number(lease.units()),
+                                ":flushedSeq", number(lease.flushedSeq())))
+                        .build())
+                .build());
+        if (to.quantity() > 0) {
+            writes.add(inventoryRepository.increment(to));
+        }
+        try {
+            inventoryRepository.transact(writes);
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
+    }
+
+    // Units of `productId` held by reservations the owner made after its last flush. The owner had
+    // already taken them from its lease locally, so they must not go back to stock on reclaim.
+    public long findUnflushedUnits(Lease lease) {
+        return dynamoDbClient.queryPaginator(QueryRequest.builder()
+                        .tableName(InventoryRepository.RESERVATIONS_TABLE)
+                        .indexName(InventoryRepository.LEASE_INDEX)
+                        .keyConditionExpression("leaseOwner = :owner AND leaseSeq > :flushedSeq")
+                        .expressionAttributeValues(Map.of(
+                                ":owner", string(lease.owner()),
+                                ":flushedSeq", number(lease.flushedSeq())))
+                        .build())
+                .items().stream()
+                .flatMap(item -> item.get("stock").l().stream())
+                .map(AttributeValue::m)
+                .filter(line -> lease.productId().equals(line.get("productId").s())
+                        && Integer.parseInt(line.get("shard").n()) == ReservedStock.LEASED)
+                .mapToLong(line -> Long.parseLong(line.get("quantity").n()))
+                .sum();
+    }
+
+    private Map<String, AttributeValue> leaseKey(String productId, String owner) {
+        return Map.of(
+                "productId", string(productId),
+                "owner", string(owner));
+    }
+
+    private long longValue(AttributeValue value) {
+        return value != null && value.n() != null ? Long.parseLong(value.n()) : 0;
+    }
+
+    private AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
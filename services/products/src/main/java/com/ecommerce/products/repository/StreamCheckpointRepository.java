@@ -0,0 +1,119 @@
+package com.ecommerce.products.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+// Per-shard progress of the products stream consumer, plus the lease that makes a single pod the
+// consumer at a time. Finished shards expire once the stream can no longer return them.
+@Repository
+public class StreamCheckpointRepository {
+
+    static final String TABLE_NAME = "product-stream-checkpoints";
+    static final String LEASE_ID = "lease";
+
+    private static final Duration FINISHED_SHARD_RETENTION = Duration.ofDays(2);
+
+    private final DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    public StreamCheckpointRepository(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    public static class Checkpoint {
+
+        private final String sequenceNumber;
+        private final boolean finished;
+
+        Checkpoint(String sequenceNumber, boolean finished) {
+            this.sequenceNumber = sequenceNumber;
+            this.finished = finished;
+        }
+
+        // Last sequence number written to the index, null if nothing has been read from the shard
+        public String getSequenceNumber() {
+            return sequenceNumber;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+
+    // Acquires or renews the lease; expires on its own if the holder dies
+    public boolean tryAcquireLease(String owner, Duration leaseTime) {
+        long now = Instant.now().toEpochMilli();
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("shardId", AttributeValue.builder().s(LEASE_ID).build()))
+                    .updateExpression("SET #owner = :owner, leasedUntil = :leasedUntil")
+                    .conditionExpression("attribute_not_exists(leasedUntil) OR leasedUntil < :now OR #owner = :owner")
+                    .expressionAttributeNames(Map.of("#owner", "owner"))
+                    .expressionAttributeValues(Map.of(
+                            ":owner", AttributeValue.builder().s(owner).build(),
+                            ":leasedUntil", number(now + leaseTime.toMillis()),
+                            ":now", number(now)))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    public Map<String, Checkpoint> findAll() {
+        Map<String, Checkpoint> checkpoints = new HashMap<>();
+        dynamoDbClient.scanPaginator(ScanRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .consistentRead(true)
+                        .build())
+                .items()
+                .forEach(item -> {
+                    String shardId = item.get("shardId").s();
+                    if (LEASE_ID.equals(shardId)) {
+                        return;
+                    }
+                    AttributeValue sequenceNumber = item.get("sequenceNumber");
+                    AttributeValue finished = item.get("finished");
+                    checkpoints.put(shardId, new Checkpoint(
+                            sequenceNumber != null ? sequenceNumber.s() : null,
+                            finished != null && Boolean.TRUE.equals(finished.bool())));
+                });
+        return checkpoints;
+    }
+
+    public void checkpoint(String shardId, String sequenceNumber) {
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of("shardId", AttributeValue.builder().s(shardId).build()))
+                .updateExpression("SET sequenceNumber = :sequenceNumber")
+                .expressionAttributeValues(Map.of(":sequenceNumber", AttributeValue.builder().s(sequenceNumber).build()))
+                .build());
+    }
+
+    public void markFinished(String shardId) {
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Map.of("shardId", AttributeValue.builder().s(shardId).build()))
+                .updateExpression("SET finished = :finished, expiresAt = :expiresAt")
+                .expressionAttributeValues(Map.of(
+                        ":finished", AttributeValue.builder().bool(true).build(),
+                        ":expiresAt", number(Instant.now().plus(FINISHED_SHARD_RETENTION).getEpochSecond())))
+                .build());
+    }
+
+    private AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
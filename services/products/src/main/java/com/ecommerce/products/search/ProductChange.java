@@ -0,0 +1,39 @@
+package com.ecommerce.products.search;
+
+import com.ecommerce.products.model.Product;
+
+import java.time.Instant;
+
+// One upsert or delete for the search index. The version orders changes to the same product, so an
+// older change that arrives late is rejected by the index instead of overwriting a newer one.
+public record ProductChange(String productId, Product product, long version) {
+
+    // Low bits of the version hold the revision counter; stock updates only bump the revision
+    private static final int REVISION_BITS = 20;
+
+    public static ProductChange upsert(Product product) {
+        Instant updatedAt = product.getUpdatedAt() != null ? product.getUpdatedAt() : product.getCreatedAt();
+        return new ProductChange(product.getProductId(), product, version(updatedAt, product.getRevision()));
+    }
+
+    // Versioned after both the deletion time and the last write, so it wins over every earlier upsert
+    public static ProductChange delete(String productId, Instant deletedAt, Instant lastUpdatedAt, Long lastRevision) {
+        long version = deletedAt.toEpochMilli() << REVISION_BITS;
+        if (lastUpdatedAt != null) {
+            version = Math.max(version, version(lastUpdatedAt, lastRevision) + 1);
+        }
+        return new ProductChange(productId, null, version);
+    }
+
+    // Grows with every write: full saves move updatedAt forward, partial updates ADD to the revision.
+    // A full save may carry a revision read before concurrent stock updates, but its newer updatedAt
+    // outweighs up to 2^20 of those.
+    public static long version(Instant updatedAt, Long revision) {
+        long millis = updatedAt != null ? updatedAt.toEpochMilli() : 0;
+        return (millis << REVISION_BITS) + (revision != null ? revision : 0);
+    }
+
+    public boolean isDelete() {
+        return product == null;
+    }
+}
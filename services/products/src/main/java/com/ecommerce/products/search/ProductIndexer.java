@@ -0,0 +1,240 @@
+package com.ecommerce.products.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.ecommerce.products.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Writes product changes to the search index with bulk requests. Every operation carries an external
+// version (ProductChange.version, which grows with every write to the item), which makes replays and
+// out-of-order delivery harmless: the index rejects anything not newer than what it holds, and those
+// conflicts count as done.
+// Rejections, server errors and connection failures are retried with backoff, so callers that wait
+// for index() slow down with the cluster instead of piling up work. Retries are bounded, and request
+// errors are not retried at all: a change that still fails is counted as failed and logged, and a
+// full reindex repairs it, rather than one bad batch stalling the stream consumer for good.
+// The index is created with its mapping once the application is ready, not while the context starts,
+// so the build-time training run and pods starting while the cluster is down don't fail; writes
+// create it first if that hasn't happened yet, as an index created by a bulk request gets no mapping.
+@Component
+public class ProductIndexer {
+
+    public static final String INDEX_NAME = "products";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexer.class);
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchConverter elasticsearchConverter;
+    private final IndexOperations indexOperations;
+    private final int bulkSize;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+
+    private final Counter indexedCounter;
+    private final Counter deletedCounter;
+    private final Counter staleCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean indexCreated;
+
+    @Autowired
+    public ProductIndexer(ElasticsearchClient elasticsearchClient,
+                          ElasticsearchOperations elasticsearchOperations,
+                          MeterRegistry meterRegistry,
+                          @Value("${products.search-sync.bulk-size:500}") int bulkSize,
+                          @Value("${products.search-sync.base-backoff-ms:100}") long baseBackoffMillis,
+                          @Value("${products.search-sync.max-backoff-ms:10000}") long maxBackoffMillis,
+                          @Value("${products.search-sync.max-attempts:6}") int maxAttempts) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchConverter = elasticsearchOperations.getElasticsearchConverter();
+        this.indexOperations = elasticsearchOperations.indexOps(Product.class);
+        this.bulkSize = bulkSize;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxAttempts = maxAttempts;
+        this.indexedCounter = documentCounter(meterRegistry, "indexed");
+        this.deletedCounter = documentCounter(meterRegistry, "deleted");
+        this.staleCounter = documentCounter(meterRegistry, "stale");
+        this.failedCounter = documentCounter(meterRegistry, "failed");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexOnStartup() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                createIndex();
+            } catch (Exception e) {
+                logger.warn("Could not create the search index, the first write will try again: {}", e.getMessage());
+            }
+        });
+    }
+
+    // Creates the index with its mapping unless it exists; throws if the cluster can't be reached
+    public synchronized void createIndex() {
+        if (indexCreated) {
+            return;
+        }
+        try {
+            if (!indexOperations.exists()) {
+                indexOperations.createWithMapping();
+                logger.info("Created search index {}", INDEX_NAME);
+            }
+        } catch (RuntimeException e) {
+            // Another pod may have created it in between
+            if (!indexOperations.exists()) {
+                throw e;
+            }
+        }
+        indexCreated = true;
+    }
+
+    // Returns once every change is applied, superseded, rejected as invalid, or given up on; throws
+    // without writing anything if the index doesn't exist and can't be created
+    public void index(List<ProductChange> changes) {
+        createIndex();
+
+        // Only the newest change per product within a batch needs to reach the index
+        Map<String, ProductChange> latest = new LinkedHashMap<>();
+        for (ProductChange change : changes) {
+            latest.merge(change.productId(), change, (a, b) -> b.version() >= a.version() ? b : a);
+        }
+
+        List<ProductChange> pending = new ArrayList<>(latest.values());
+        for (int from = 0; from < pending.size(); from += bulkSize) {
+            indexChunk(pending.subList(from, Math.min(from + bulkSize, pending.size())));
+        }
+    }
+
+    private void indexChunk(List<ProductChange> chunk) {
+        List<ProductChange> pending = new ArrayList<>(chunk.size());
+        List<BulkOperation> operations = new ArrayList<>(chunk.size());
+        for (ProductChange change : chunk) {
+            try {
+                operations.add(operation(change));
+                pending.add(change);
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                logger.error("Product {} could not be mapped to a search document", change.productId(), e);
+            }
+        }
+
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > maxAttempts) {
+                giveUp(pending, "still failing after " + maxAttempts + " attempts");
+                return;
+            }
+            if (attempt > 1) {
+                backoff(attempt);
+            }
+            try {
+                List<BulkOperation> sent = operations;
+                BulkResponse response = elasticsearchClient.bulk(request -> request.operations(sent));
+                List<ProductChange> retry = retryable(pending, response.items());
+                operations = retry.size() == pending.size() ? operations : operations(retry);
+                pending = retry;
+            } catch (ElasticsearchException e) {
+                if (e.status() != 429 && e.status() < 500) {
+                    giveUp(pending, "bulk request rejected: " + e.getMessage());
+                    return;
+                }
+                logger.warn("Bulk request for {} products failed, retrying: {}", pending.size(), e.getMessage());
+            } catch (Exception e) {
+                logger.warn("Bulk request for {} products failed, retrying: {}", pending.size(), e.getMessage());
+            }
+        }
+    }
+
+    private List<BulkOperation> operations(List<ProductChange> changes) {
+        return changes.stream()
+                .map(this::operation)
+                .collect(Collectors.toList());
+    }
+
+    private void giveUp(List<ProductChange> changes, String reason) {
+        failedCounter.increment(changes.size());
+        logger.error("Giving up on indexing {} products ({}), a reindex will repair them: {}", changes.size(), reason,
+                changes.stream().map(ProductChange::productId).collect(Collectors.joining(", ")));
+    }
+
+    private BulkOperation operation(ProductChange change) {
+        if (change.isDelete()) {
+            return BulkOperation.of(op -> op.delete(d -> d
+                    .index(INDEX_NAME)
+                    .id(change.productId())
+                    .version(change.version())
+                    .versionType(VersionType.External)));
+        }
+        Map<String, Object> document = elasticsearchConverter.mapObject(change.product());
+        return BulkOperation.of(op -> op.index(i -> i
+                .index(INDEX_NAME)
+                .id(change.productId())
+                .version(change.version())
+                .versionType(VersionType.External)
+                .document(document)));
+    }
+
+    // Items are answered in request order; returns the changes worth sending again
+    private List<ProductChange> retryable(List<ProductChange> sent, List<BulkResponseItem> items) {
+        List<ProductChange> retry = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            ProductChange change = sent.get(i);
+            int status = item.status();
+            if (status >= 200 && status < 300) {
+                (change.isDelete() ? deletedCounter : indexedCounter).increment();
+            } else if (status == 404 && change.isDelete()) {
+                deletedCounter.increment();
+            } else if (status == 409) {
+                staleCounter.increment();
+            } else if (status == 429 || status >= 500) {
+                retry.add(change);
+            } else {
+                failedCounter.increment();
+                logger.error("Product {} was rejected by the search index: {}", change.productId(),
+                        item.error() != null ? item.error().reason() : status);
+            }
+        }
+        return retry;
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 2, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Indexing was interrupted", e);
+        }
+    }
+
+    private Counter documentCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("products.search_sync.documents")
+                .description("Product changes applied to the search index, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.products.search;
+
+import com.ecommerce.products.model.ProductSummary;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductSearchResult {
+
+    private final List<ProductSummary> products;
+    private final long totalHits;
+    private final Map<String, Map<String, Long>> facets;
+    private final String nextCursor;
+
+    public ProductSearchResult(List<ProductSummary> products, long totalHits,
+                               Map<String, Map<String, Long>> facets, String nextCursor) {
+        this.products = products;
+        this.totalHits = totalHits;
+        this.facets = facets;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductSummary> getProducts() {
+        return products;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    // Facet name (category, brand, color, size, tags) to value counts, largest first
+    public Map<String, Map<String, Long>> getFacets() {
+        return facets;
+    }
+
+    // Opaque search_after token, null once there is nothing left to read
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
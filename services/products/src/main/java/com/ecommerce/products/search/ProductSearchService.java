@@ -0,0 +1,224 @@
+package com.ecommerce.products.search;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchAllQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MultiMatchQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermsQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.json.JsonData;
+import com.ecommerce.products.model.ProductSummary;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Catalog search over the products index: full-text relevance on name/description, keyword and
+// range filters, facet counts and search_after pagination. Keyword filters are applied as a
+// post_filter and each facet is counted with every filter but its own, so selecting a brand
+// still shows the counts of the other brands. Hits only carry the ProductSummary fields.
+@Service
+public class ProductSearchService {
+
+    static final Map<String, String> FACET_FIELDS = Map.of(
+            "category", "category",
+            "brand", "brand",
+            "color", "color",
+            "size", "size",
+            "tags", "tags");
+
+    private static final String FACET_VALUES = "values";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int facetSize;
+
+    @Autowired
+    public ProductSearchService(ElasticsearchOperations elasticsearchOperations,
+                                ObjectMapper objectMapper,
+                                @Value("${products.search.max-page-size:100}") int maxPageSize,
+                                @Value("${products.search.facet-size:20}") int facetSize) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.facetSize = facetSize;
+    }
+
+    public ProductSearchResult search(ProductSearchCriteria criteria) {
+        int pageSize = Math.max(1, Math.min(criteria.getPageSize(), maxPageSize));
+        Map<String, Query> keywordFilters = keywordFilters(criteria);
+
+        var queryBuilder = NativeQuery.builder()
+                .withQuery(mainQuery(criteria))
+                .withSort(sort(criteria))
+                .withPageable(PageRequest.of(0, pageSize))
+                .withSourceFilter(new FetchSourceFilter(ProductSummary.SOURCE_FIELDS.toArray(new String[0]), null))
+                .withTrackTotalHits(true);
+
+        if (!keywordFilters.isEmpty()) {
+            queryBuilder.withFilter(allOf(new ArrayList<>(keywordFilters.values())));
+        }
+        // Facets are only computed for the first page; later pages keep the counts already shown
+        if (criteria.getCursor() == null) {
+            FACET_FIELDS.forEach((facet, field) ->
+                    queryBuilder.withAggregation(facet, facetAggregation(facet, field, keywordFilters)));
+        } else {
+            queryBuilder.withSearchAfter(decodeCursor(criteria.getCursor()));
+        }
+
+        SearchHits<ProductSummary> hits = elasticsearchOperations.search(queryBuilder.build(), ProductSummary.class,
+                IndexCoordinates.of(ProductIndexer.INDEX_NAME));
+
+        List<ProductSummary> products = hits.getSearchHits().stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hits.getSearchHits().size() == pageSize) {
+            nextCursor = encodeCursor(hits.getSearchHit(pageSize - 1).getSortValues());
+        }
+        return new ProductSearchResult(products, hits.getTotalHits(), facets(hits), nextCursor);
+    }
+
+    // Scored part of the query: text relevance plus the non-keyword filters, which also apply to facets
+    private Query mainQuery(ProductSearchCriteria criteria) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        if (criteria.getQuery() != null && !criteria.getQuery().isBlank()) {
+            bool.must(MultiMatchQuery.of(m -> m
+                    .query(criteria.getQuery())
+                    .fields("name^3", "shortDescription^2", "description")
+                    .type(TextQueryType.BestFields)
+                    .fuzziness("AUTO"))._toQuery());
+        } else {
+            bool.must(MatchAllQuery.of(m -> m)._toQuery());
+        }
+
+        bool.filter(TermQuery.of(t -> t.field("active").value(true))._toQuery());
+        if (criteria.getMinPrice() != null || criteria.getMaxPrice() != null) {
+            bool.filter(RangeQuery.of(r -> {
+                r.field("price");
+                if (criteria.getMinPrice() != null) {
+                    r.gte(JsonData.of(criteria.getMinPrice().doubleValue()));
+                }
+                if (criteria.getMaxPrice() != null) {
+                    r.lte(JsonData.of(criteria.getMaxPrice().doubleValue()));
+                }
+                return r;
+            })._toQuery());
+        }
+        if (criteria.getMinRating() != null) {
+            bool.filter(RangeQuery.of(r -> r.field("rating").gte(JsonData.of(criteria.getMinRating())))._toQuery());
+        }
+        return bool.build()._toQuery();
+    }
+
+    private Map<String, Query> keywordFilters(ProductSearchCriteria criteria) {
+        Map<String, Query> filters = new LinkedHashMap<>();
+        addTermsFilter(filters, "category", criteria.getCategories());
+        addTermsFilter(filters, "brand", criteria.getBrands());
+        addTermsFilter(filters, "color", criteria.getColors());
+        addTermsFilter(filters, "size", criteria.getSizes());
+        addTermsFilter(filters, "tags", criteria.getTags());
+        return filters;
+    }
+
+    private void addTermsFilter(Map<String, Query> filters, String facet, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        List<FieldValue> terms = values.stream()
+                .map(FieldValue::of)
+                .collect(Collectors.toList());
+        filters.put(facet, TermsQuery.of(t -> t
+                .field(FACET_FIELDS.get(facet))
+                .terms(v -> v.value(terms)))._toQuery());
+    }
+
+    private Aggregation facetAggregation(String facet, String field, Map<String, Query> keywordFilters) {
+        List<Query> otherFilters = keywordFilters.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(facet))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+
+        return Aggregation.of(a -> a
+                .filter(otherFilters.isEmpty() ? MatchAllQuery.of(m -> m)._toQuery() : allOf(otherFilters))
+                .aggregations(FACET_VALUES, Aggregation.of(values -> values
+                        .terms(t -> t.field(field).size(facetSize)))));
+    }
+
+    // Every sort ends on productId so search_after has a unique position to resume from
+    private Sort sort(ProductSearchCriteria criteria) {
+        Sort.Order tieBreaker = Sort.Order.asc("productId");
+        return switch (criteria.getSortBy()) {
+            case PRICE_ASC -> Sort.by(Sort.Order.asc("price"), tieBreaker);
+            case PRICE_DESC -> Sort.by(Sort.Order.desc("price"), tieBreaker);
+            case RATING -> Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("reviewCount"), tieBreaker);
+            case NEWEST -> Sort.by(Sort.Order.desc("createdAt"), tieBreaker);
+            default -> Sort.by(Sort.Order.desc("_score"), tieBreaker);
+        };
+    }
+
+    private Map<String, Map<String, Long>> facets(SearchHits<ProductSummary> hits) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        if (!(hits.getAggregations() instanceof ElasticsearchAggregations aggregations)) {
+            return facets;
+        }
+
+        for (String facet : FACET_FIELDS.keySet()) {
+            ElasticsearchAggregation aggregation = aggregations.get(facet);
+            if (aggregation == null) {
+                continue;
+            }
+            Aggregate values = aggregation.aggregation().getAggregate().filter().aggregations().get(FACET_VALUES);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            values.sterms().buckets().array()
+                    .forEach(bucket -> counts.put(bucket.key().stringValue(), bucket.docCount()));
+            facets.put(facet, counts);
+        }
+        return facets;
+    }
+
+    private Query allOf(List<Query> queries) {
+        return BoolQuery.of(b -> b.filter(queries))._toQuery();
+    }
+
+    private String encodeCursor(List<Object> sortValues) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(sortValues));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    private List<Object> decodeCursor(String cursor) {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<List<Object>>() {});
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.products.service;
+
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.repository.ParallelScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes createdAtMillis onto products saved before it existed, which is what puts them into the
+// sparse category-created-index. Only items still missing the attribute are returned by the scan,
+// and the update is conditional, so it is safe to re-run and never overwrites a value written by
+// the service in the meantime.
+@Service
+public class ProductIndexBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexBackfillJob.class);
+
+    private static final List<String> BACKFILL_ATTRIBUTES = List.of("productId", "createdAt");
+
+    private static final Expression MISSING_CREATED_AT_MILLIS = Expression.builder()
+            .expression("attribute_not_exists(#millis) AND attribute_exists(#createdAt)")
+            .expressionNames(Map.of("#millis", "createdAtMillis", "#createdAt", "createdAt"))
+            .build();
+
+    private final ParallelScanner<Product> productScanner;
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public ProductIndexBackfillJob(ParallelScanner<Product> productScanner,
+                                   DynamoDbClient dynamoDbClient,
+                                   DynamoDbTable<Product> productTable) {
+        this.productScanner = productScanner;
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = productTable.tableName();
+    }
+
+    // Returns false if a backfill is already running on this instance
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            long started = System.currentTimeMillis();
+            AtomicLong updated = new AtomicLong();
+            try {
+                long missing = productScanner.scanPages(BACKFILL_ATTRIBUTES, MISSING_CREATED_AT_MILLIS, page -> page.forEach(product -> {
+                    if (backfill(product)) {
+                        updated.incrementAndGet();
+                    }
+                }));
+                logger.info("Backfilled createdAtMillis on {} of {} products in {} ms",
+                        updated.get(), missing, System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                logger.error("createdAtMillis backfill failed after {} products", updated.get(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private boolean backfill(Product product) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of("productId", AttributeValue.builder().s(product.getProductId()).build()))
+                    .updateExpression("SET #millis = :millis ADD revision :one")
+                    .conditionExpression("attribute_exists(productId) AND attribute_not_exists(#millis)")
+                    .expressionAttributeNames(Map.of("#millis", "createdAtMillis"))
+                    .expressionAttributeValues(Map.of(
+                            ":millis", AttributeValue.builder().n(Long.toString(product.getCreatedAtMillis())).build(),
+                            ":one", AttributeValue.builder().n("1").build()))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            // Deleted, or saved by the service with the attribute, since the scan read it
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.products.service;
+
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.repository.ParallelScanner;
+import com.ecommerce.products.search.ProductChange;
+import com.ecommerce.products.search.ProductIndexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Rebuilds the products search index from a parallel scan of the table, e.g. after the stream
+// consumer fell behind the stream retention. Safe to run while the stream sync is active: both
+// write versioned documents, so whichever saw the later write wins.
+@Service
+public class ProductReindexJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductReindexJob.class);
+
+    private final ParallelScanner<Product> productScanner;
+    private final ProductIndexer productIndexer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public ProductReindexJob(ParallelScanner<Product> productScanner, ProductIndexer productIndexer) {
+        this.productScanner = productScanner;
+        this.productIndexer = productIndexer;
+    }
+
+    // Returns false if a reindex is already running on this instance
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                long reindexed = productScanner.scanPages(Collections.emptyList(), page -> productIndexer.index(page.stream()
+                        .map(ProductChange::upsert)
+                        .collect(Collectors.toList())));
+                logger.info("Reindexed {} products in {} ms", reindexed, System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                logger.error("Product reindex failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+}
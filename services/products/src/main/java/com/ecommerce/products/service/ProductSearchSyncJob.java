@@ -0,0 +1,273 @@
+package com.ecommerce.products.service;
+
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.repository.StreamCheckpointRepository;
+import com.ecommerce.products.search.ProductChange;
+import com.ecommerce.products.search.ProductIndexer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.TrimmedDataAccessException;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Keeps the products search index in step with the products table by consuming its DynamoDB
+// stream. One pod holds the consumer lease at a time and renews it before every batch; a pod that
+// finds it lost stops mid-poll. A shard is checkpointed only after its records are in the index
+// and the lease is still held, so a crash replays them, which the versioned writes make harmless.
+// Indexing is synchronous with reading, so when the cluster slows down the records simply wait in
+// the stream (24h retention) and the lag gauge grows.
+@Service
+public class ProductSearchSyncJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchSyncJob.class);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbStreamsClient streamsClient;
+    private final DynamoDbTable<Product> productTable;
+    private final StreamCheckpointRepository checkpointRepository;
+    private final ProductIndexer productIndexer;
+    private final boolean enabled;
+    private final Duration leaseTime;
+    private final int maxBatchesPerShard;
+    private final Duration shardRefreshInterval;
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Map<String, String> shardIterators = new ConcurrentHashMap<>();
+    private final Map<String, Long> shardLagMillis = new ConcurrentHashMap<>();
+    private volatile String streamArn;
+    private volatile List<Shard> shards;
+    private volatile Instant shardsListedAt = Instant.EPOCH;
+
+    @Autowired
+    public ProductSearchSyncJob(DynamoDbClient dynamoDbClient,
+                                DynamoDbStreamsClient streamsClient,
+                                DynamoDbTable<Product> productTable,
+                                StreamCheckpointRepository checkpointRepository,
+                                ProductIndexer productIndexer,
+                                MeterRegistry meterRegistry,
+                                @Value("${products.search-sync.enabled:true}") boolean enabled,
+                                @Value("${products.search-sync.lease-time:30s}") Duration leaseTime,
+                                @Value("${products.search-sync.max-batches-per-shard:10}") int maxBatchesPerShard,
+                                @Value("${products.search-sync.shard-refresh-interval:30s}") Duration shardRefreshInterval) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.streamsClient = streamsClient;
+        this.productTable = productTable;
+        this.checkpointRepository = checkpointRepository;
+        this.productIndexer = productIndexer;
+        this.enabled = enabled;
+        this.leaseTime = leaseTime;
+        this.maxBatchesPerShard = maxBatchesPerShard;
+        this.shardRefreshInterval = shardRefreshInterval;
+
+        Gauge.builder("products.search_sync.lag", shardLagMillis,
+                        lags -> lags.values().stream().mapToLong(Long::longValue).max().orElse(0))
+                .description("Age in milliseconds of the newest product change indexed, on the furthest behind shard")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${products.search-sync.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        if (!holdLease()) {
+            return;
+        }
+
+        try {
+            List<Shard> shards = currentShards();
+            Set<String> shardIds = shards.stream()
+                    .map(Shard::shardId)
+                    .collect(Collectors.toSet());
+            Map<String, StreamCheckpointRepository.Checkpoint> checkpoints = checkpointRepository.findAll();
+
+            for (Shard shard : shards) {
+                var checkpoint = checkpoints.get(shard.shardId());
+                if (checkpoint != null && checkpoint.isFinished()) {
+                    continue;
+                }
+                // Children must wait until their parent is drained, or a product's changes could apply out of order
+                String parent = shard.parentShardId();
+                if (parent != null && shardIds.contains(parent)
+                        && (checkpoints.get(parent) == null || !checkpoints.get(parent).isFinished())) {
+                    continue;
+                }
+                if (!consumeShard(shard.shardId(), checkpoint)) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Product search sync poll failed", e);
+        }
+    }
+
+    // False if the lease was lost, in which case the poll has to stop
+    private boolean consumeShard(String shardId, StreamCheckpointRepository.Checkpoint checkpoint) {
+        String iterator = shardIterators.computeIfAbsent(shardId, id -> shardIterator(id, checkpoint));
+        for (int batch = 0; batch < maxBatchesPerShard && iterator != null; batch++) {
+            if (!holdLease()) {
+                return false;
+            }
+            GetRecordsResponse response;
+            try {
+                response = streamsClient.getRecords(GetRecordsRequest.builder()
+                        .shardIterator(iterator)
+                        .limit(1000)
+                        .build());
+            } catch (ExpiredIteratorException e) {
+                shardIterators.remove(shardId);
+                return true;
+            }
+
+            List<Record> records = response.records();
+            if (!records.isEmpty()) {
+                productIndexer.index(records.stream()
+                        .map(this::toChange)
+                        .collect(Collectors.toList()));
+                // Indexing may have backed off past the lease; another pod may own the checkpoints now
+                if (!holdLease()) {
+                    return false;
+                }
+                Record last = records.get(records.size() - 1);
+                checkpointRepository.checkpoint(shardId, last.dynamodb().sequenceNumber());
+                shardLagMillis.put(shardId, Duration.between(last.dynamodb().approximateCreationDateTime(), Instant.now()).toMillis());
+            }
+
+            iterator = response.nextShardIterator();
+            if (iterator == null) {
+                checkpointRepository.markFinished(shardId);
+                shardIterators.remove(shardId);
+                shardLagMillis.remove(shardId);
+                // Its children can start now
+                shardsListedAt = Instant.EPOCH;
+                return true;
+            }
+            shardIterators.put(shardId, iterator);
+            if (records.isEmpty()) {
+                // Caught up with this shard
+                shardLagMillis.put(shardId, 0L);
+                return true;
+            }
+        }
+        return true;
+    }
+
+    // Acquires or renews the consumer lease
+    private boolean holdLease() {
+        if (checkpointRepository.tryAcquireLease(owner, leaseTime)) {
+            return true;
+        }
+        // Another pod is consuming; forget our iterators so we resume from its checkpoints later
+        shardIterators.clear();
+        shardLagMillis.clear();
+        return false;
+    }
+
+    private String shardIterator(String shardId, StreamCheckpointRepository.Checkpoint checkpoint) {
+        var request = GetShardIteratorRequest.builder()
+                .streamArn(streamArn())
+                .shardId(shardId);
+        if (checkpoint != null && checkpoint.getSequenceNumber() != null) {
+            request.shardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER)
+                    .sequenceNumber(checkpoint.getSequenceNumber());
+        } else {
+            request.shardIteratorType(ShardIteratorType.TRIM_HORIZON);
+        }
+
+        try {
+            return streamsClient.getShardIterator(request.build()).shardIterator();
+        } catch (TrimmedDataAccessException e) {
+            logger.error("Checkpoint for shard {} is older than the stream retention; changes were lost, "
+                    + "run a full reindex. Resuming from the oldest available record.", shardId);
+            return streamsClient.getShardIterator(request
+                            .shardIteratorType(ShardIteratorType.TRIM_HORIZON)
+                            .sequenceNumber(null)
+                            .build())
+                    .shardIterator();
+        }
+    }
+
+    private ProductChange toChange(Record record) {
+        var streamRecord = record.dynamodb();
+        if (record.eventName() == OperationType.REMOVE) {
+            Map<String, AttributeValue> oldImage = streamRecord.hasOldImage() ? streamRecord.oldImage() : Collections.emptyMap();
+            AttributeValue updatedAt = oldImage.get("updatedAt");
+            AttributeValue revision = oldImage.get("revision");
+            return ProductChange.delete(
+                    streamRecord.keys().get("productId").s(),
+                    streamRecord.approximateCreationDateTime(),
+                    updatedAt != null && updatedAt.s() != null ? Instant.parse(updatedAt.s()) : null,
+                    revision != null && revision.n() != null ? Long.valueOf(revision.n()) : null);
+        }
+        return ProductChange.upsert(productTable.tableSchema().mapToItem(streamRecord.newImage()));
+    }
+
+    // DescribeStream is rate limited, so the shard list is only refreshed periodically or when a shard closes
+    private List<Shard> currentShards() {
+        if (shards == null || Instant.now().isAfter(shardsListedAt.plus(shardRefreshInterval))) {
+            shards = listShards();
+            shardsListedAt = Instant.now();
+        }
+        return shards;
+    }
+
+    private List<Shard> listShards() {
+        List<Shard> shards = new ArrayList<>();
+        String exclusiveStartShardId = null;
+        do {
+            var description = streamsClient.describeStream(DescribeStreamRequest.builder()
+                            .streamArn(streamArn())
+                            .exclusiveStartShardId(exclusiveStartShardId)
+                            .build())
+                    .streamDescription();
+            shards.addAll(description.shards());
+            exclusiveStartShardId = description.lastEvaluatedShardId();
+        } while (exclusiveStartShardId != null);
+        return shards;
+    }
+
+    private String streamArn() {
+        if (streamArn == null) {
+            streamArn = dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                            .tableName(productTable.tableName())
+                            .build())
+                    .table()
+                    .latestStreamArn();
+            if (streamArn == null) {
+                throw new IllegalStateException("Streams are not enabled on table " + productTable.tableName());
+            }
+        }
+        return streamArn;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.products.service;
+
+import com.ecommerce.products.inventory.InventoryService;
+import com.ecommerce.products.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+// Returns the stock of reservations whose hold ran out. DynamoDB TTL only garbage-collects the
+// records (and may take days to), so expiry is driven from the pending-expiry-index instead. Every
+// pod sweeps; a reservation can only leave PENDING once, so concurrent sweeps never double-release.
+@Service
+public class ReservationExpiryJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryJob.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
+    private final int batchSize;
+
+    @Autowired
+    public ReservationExpiryJob(InventoryRepository inventoryRepository,
+                                InventoryService inventoryService,
+                                @Value("${products.inventory.expiry-batch-size:100}") int batchSize) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryService = inventoryService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${products.inventory.expiry-sweep-interval-ms:15000}")
+    public void releaseExpired() {
+        Instant now = Instant.now();
+        int released = 0;
+        for (int pendingShard = 0; pendingShard < inventoryService.getPendingShards(); pendingShard++) {
+            try {
+                List<String> expired = inventoryRepository.findExpiredReservationIds(pendingShard, now, batchSize);
+                for (String reservationId : expired) {
+                    if (inventoryService.release(reservationId)) {
+                        released++;
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Failed to release expired reservations of partition {}", pendingShard, e);
+            }
+        }
+        if (released > 0) {
+            logger.info("Released {} expired reservations", released);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.products.service;
+
+import com.ecommerce.products.repository.InventoryRepository;
+import com.ecommerce.products.repository.StockLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Keeps Product.stockQuantity of sharded products close to the sum of their shards and of the units
+// pods hold in stock leases, for listings and the in-stock flag. Reservations never read this total.
+@Service
+public class StockShardSyncJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockShardSyncJob.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final StockLeaseRepository stockLeaseRepository;
+
+    @Autowired
+    public StockShardSyncJob(InventoryRepository inventoryRepository, StockLeaseRepository stockLeaseRepository) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockLeaseRepository = stockLeaseRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${products.inventory.shard-sync-interval-ms:10000}")
+    public void sync() {
+        for (String productId : inventoryRepository.findShardedProductIds()) {
+            try {
+                long total = inventoryRepository.findShards(productId).values().stream()
+                        .mapToLong(Long::longValue)
+                        .sum();
+                total += stockLeaseRepository.findLeases(productId).stream()
+                        .mapToLong(StockLeaseRepository.Lease::units)
+                        .sum();
+                inventoryRepository.updateShardedTotal(productId, total);
+            } catch (Exception e) {
+                logger.warn("Failed to sync stock total of sharded product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.products.model;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The hand-built schemas must stay interchangeable with TableSchema.fromBean: the same item maps
+// both ways and the same attribute names, keys and indexes
+class ProductSchemasTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-15T10:30:00Z");
+
+    @Test
+    void productSchemaMapsLikeTheBeanSchema() {
+        assertSameMapping(TableSchema.fromBean(Product.class), ProductSchemas.PRODUCT, fullProduct());
+    }
+
+    @Test
+    void productSchemaMapsSparseProductsLikeTheBeanSchema() {
+        Product product = new Product();
+        product.setProductId("prod-0002");
+        product.setImageUrls(null);
+        product.setTags(null);
+
+        assertSameMapping(TableSchema.fromBean(Product.class), ProductSchemas.PRODUCT, product);
+    }
+
+    @Test
+    void productSchemaHasTheBeanSchemaKeysAndIndexes() {
+        assertSameStructure(TableSchema.fromBean(Product.class), ProductSchemas.PRODUCT);
+    }
+
+    @Test
+    void createdAtMillisFollowsTheStoredCreatedAtInAnyOrder() {
+        Map<String, AttributeValue> millisFirst = new LinkedHashMap<>();
+        millisFirst.put("createdAtMillis", AttributeValue.builder().n("1").build());
+        millisFirst.put("productId", AttributeValue.builder().s("prod-0003").build());
+        millisFirst.put("createdAt", AttributeValue.builder().s(CREATED_AT.toString()).build());
+        Map<String, AttributeValue> millisLast = new LinkedHashMap<>();
+        millisLast.put("createdAt", AttributeValue.builder().s(CREATED_AT.toString()).build());
+        millisLast.put("productId", AttributeValue.builder().s("prod-0003").build());
+        millisLast.put("createdAtMillis", AttributeValue.builder().n("1").build());
+
+        for (TableSchema<Product> schema : List.of(TableSchema.fromBean(Product.class), ProductSchemas.PRODUCT)) {
+            for (Map<String, AttributeValue> item : List.of(millisFirst, millisLast)) {
+                assertThat(schema.mapToItem(item).getCreatedAtMillis()).isEqualTo(CREATED_AT.toEpochMilli());
+            }
+        }
+    }
+
+    @Test
+    void dimensionsSchemaMapsLikeTheBeanSchema() {
+        assertSameMapping(TableSchema.fromBean(ProductDimensions.class), ProductSchemas.DIMENSIONS,
+                new ProductDimensions(31.0, 20.0, 12.0, "cm"));
+        assertSameStructure(TableSchema.fromBean(ProductDimensions.class), ProductSchemas.DIMENSIONS);
+    }
+
+    @Test
+    void summarySchemaMapsLikeTheBeanSchema() {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId("prod-0001");
+        summary.setName("Trail Running Shoe");
+        summary.setPrice(Money.ofMinor(8999, Money.CATALOG_CURRENCY));
+        summary.setOriginalPrice(Money.ofMinor(11999, Money.CATALOG_CURRENCY));
+        summary.setImageUrls(List.of("https://cdn.example.com/products/prod-0001/1.jpg"));
+        summary.setRating(4.6);
+        summary.setStockQuantity(0);
+
+        assertSameMapping(TableSchema.fromBean(ProductSummary.class), ProductSchemas.SUMMARY, summary);
+        assertSameStructure(TableSchema.fromBean(ProductSummary.class), ProductSchemas.SUMMARY);
+    }
+
+    private static Product fullProduct() {
+        Product product = new Product();
+        product.setProductId("prod-0001");
+        product.setName("Trail Running Shoe");
+        product.setDescription("Lightweight trail shoe with a grippy outsole and a breathable mesh upper.");
+        product.setShortDescription("Lightweight trail shoe");
+        product.setPrice(Money.ofMinor(8999, Money.CATALOG_CURRENCY));
+        product.setOriginalPrice(Money.ofMinor(11999, Money.CATALOG_CURRENCY));
+        product.setCategory("footwear");
+        product.setBrand("Summit");
+        product.setSku("SUM-TRL-42-BLU");
+        product.setStockQuantity(240);
+        product.setMinStockLevel(20);
+        product.setStockShards(8);
+        product.setFeatured(true);
+        product.setRating(4.6);
+        product.setReviewCount(1287);
+        product.setRevision(17L);
+        product.setImageUrls(List.of(
+                "https://cdn.example.com/products/prod-0001/1.jpg",
+                "https://cdn.example.com/products/prod-0001/2.jpg"));
+        product.setTags(Set.of("running", "trail", "outdoor"));
+        product.setDimensions(new ProductDimensions(31.0, 20.0, 12.0, "cm"));
+        product.setWeight(0.62);
+        product.setColor("blue");
+        product.setSize("42");
+        product.setCreatedAt(CREATED_AT);
+        product.setUpdatedAt(CREATED_AT.plusSeconds(60));
+        product.setCreatedBy("catalog-import");
+        product.setUpdatedBy("catalog-import");
+        return product;
+    }
+
+    // Same item map from the item, and the same item when reading that map back. Null attributes are
+    // not applied on read, so a read item may carry constructor defaults the original didn't have.
+    private static <T> void assertSameMapping(TableSchema<T> bean, TableSchema<T> hand, T item) {
+        Map<String, AttributeValue> expected = new TreeMap<>(bean.itemToMap(item, false));
+
+        assertThat(new TreeMap<>(hand.itemToMap(item, false))).isEqualTo(expected);
+        Map<String, AttributeValue> readByBean = new TreeMap<>(bean.itemToMap(bean.mapToItem(expected), false));
+        assertThat(new TreeMap<>(bean.itemToMap(hand.mapToItem(expected), false))).isEqualTo(readByBean);
+        assertThat(new TreeMap<>(hand.itemToMap(hand.mapToItem(expected), false))).isEqualTo(readByBean);
+    }
+
+    private static void assertSameStructure(TableSchema<?> bean, TableSchema<?> hand) {
+        assertThat(hand.attributeNames()).containsExactlyInAnyOrderElementsOf(bean.attributeNames());
+        assertThat(indexKeys(hand)).isEqualTo(indexKeys(bean));
+    }
+
+    private static Map<String, String> indexKeys(TableSchema<?> schema) {
+        Map<String, String> keys = new TreeMap<>();
+        schema.tableMetadata().indices().forEach(index -> keys.put(index.name(),
+                index.partitionKey().map(key -> key.name()).orElse("") + "/"
+                        + index.sortKey().map(key -> key.name()).orElse("")));
+        return keys;
+    }
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.products.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.ecommerce.products.model.Money;
+import com.ecommerce.products.model.Product;
+import com.ecommerce.products.model.ProductSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs the search queries against a real Elasticsearch node, with the index created and the catalog
+// written by ProductIndexer, as the stream sync does
+@Testcontainers
+class ProductSearchServiceTest {
+
+    @Container
+    static final ElasticsearchContainer elasticsearch = new ElasticsearchContainer(
+            DockerImageName.parse("docker.elastic.co/elasticsearch/elasticsearch:8.8.0"))
+            .withEnv("xpack.security.enabled", "false");
+
+    private static RestClient restClient;
+    private static ProductSearchService searchService;
+
+    @BeforeAll
+    static void indexCatalog() {
+        restClient = RestClient.builder(HttpHost.create(elasticsearch.getHttpHostAddress())).build();
+        var elasticsearchClient = new ElasticsearchClient(new RestClientTransport(restClient, new JacksonJsonpMapper()));
+        var elasticsearchTemplate = new ElasticsearchTemplate(elasticsearchClient);
+
+        var indexer = new ProductIndexer(elasticsearchClient, elasticsearchTemplate, new SimpleMeterRegistry(),
+                500, 10, 100, 3);
+        indexer.index(List.of(
+                        product("p1", "Shoes", "Acme", "red", "10.00", 4.5, true),
+                        product("p2", "Shoes", "Acme", "blue", "25.00", 3.0, true),
+                        product("p3", "Shoes", "Zenith", "red", "40.00", 4.8, true),
+                        product("p4", "Shirts", "Zenith", "red", "15.00", 4.0, true),
+                        product("p5", "Shirts", "Orbit", "green", "60.00", 2.5, true),
+                        product("p6", "Shoes", "Orbit", "black", "55.00", 4.2, false))
+                .stream()
+                .map(ProductChange::upsert)
+                .collect(Collectors.toList()));
+        elasticsearchTemplate.indexOps(IndexCoordinates.of(ProductIndexer.INDEX_NAME)).refresh();
+
+        searchService = new ProductSearchService(elasticsearchTemplate, new ObjectMapper(), 100, 20);
+    }
+
+    @AfterAll
+    static void closeClient() throws IOException {
+        restClient.close();
+    }
+
+    @Test
+    void facetIsCountedWithoutItsOwnFilter() {
+        var criteria = new ProductSearchCriteria();
+        criteria.setBrands(List.of("Acme"));
+
+        ProductSearchResult result = searchService.search(criteria);
+
+        assertThat(ids(result)).containsExactlyInAnyOrder("p1", "p2");
+        // The brand facet still offers the other brands; inactive p6 is not counted for Orbit
+        assertThat(result.getFacets().get("brand")).isEqualTo(Map.of("Acme", 2L, "Zenith", 2L, "Orbit", 1L));
+        assertThat(result.getFacets().get("category")).isEqualTo(Map.of("Shoes", 2L));
+        assertThat(result.getFacets().get("color")).isEqualTo(Map.of("red", 1L, "blue", 1L));
+    }
+
+    @Test
+    void facetIsCountedWithEveryOtherFilter() {
+        var criteria = new ProductSearchCriteria();
+        criteria.setBrands(List.of("Acme", "Zenith"));
+        criteria.setColors(List.of("red"));
+
+        ProductSearchResult result = searchService.search(criteria);
+
+        assertThat(ids(result)).containsExactlyInAnyOrder("p1", "p3", "p4");
+        assertThat(result.getTotalHits()).isEqualTo(3);
+        assertThat(result.getFacets().get("brand")).isEqualTo(Map.of("Acme", 1L, "Zenith", 2L));
+        assertThat(result.getFacets().get("color")).isEqualTo(Map.of("red", 3L, "blue", 1L));
+    }
+
+    @Test
+    void cursorResumesAfterTheLastHit() {
+        var criteria = new ProductSearchCriteria();
+        criteria.setSortBy(ProductSearchCriteria.SortBy.PRICE_ASC);
+        criteria.setPageSize(2);
+
+        List<List<String>> pages = new ArrayList<>();
+        ProductSearchResult page = searchService.search(criteria);
+        pages.add(ids(page));
+        assertThat(page.getFacets()).isNotEmpty();
+        while (page.hasMore()) {
+            criteria.setCursor(page.getNextCursor());
+            page = searchService.search(criteria);
+            pages.add(ids(page));
+            assertThat(page.getFacets()).isEmpty();
+            assertThat(page.getTotalHits()).isEqualTo(5);
+        }
+
+        assertThat(pages).containsExactly(List.of("p1", "p4"), List.of("p2", "p3"), List.of("p5"));
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        var criteria = new ProductSearchCriteria();
+        criteria.setCursor("not a cursor");
+
+        assertThatThrownBy(() -> searchService.search(criteria)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void priceRangeIsInclusive() {
+        var criteria = new ProductSearchCriteria();
+        criteria.setMinPrice(new BigDecimal("15.00"));
+        criteria.setMaxPrice(new BigDecimal("40.00"));
+        criteria.setSortBy(ProductSearchCriteria.SortBy.PRICE_ASC);
+
+        ProductSearchResult result = searchService.search(criteria);
+
+        assertThat(ids(result)).containsExactly("p4", "p2", "p3");
+        assertThat(result.getProducts().get(0).getPrice()).isEqualTo(Money.ofMinor(1500, Money.CATALOG_CURRENCY));
+    }
+
+    @Test
+    void rangeFiltersCombineAndApplyToFacets() {
+        var criteria = new ProductSearchCriteria();
+        criteria.setMinRating(4.0);
+        assertThat(ids(searchService.search(criteria))).containsExactlyInAnyOrder("p1", "p3", "p4");
+
+        criteria.setMinPrice(new BigDecimal("20.00"));
+        ProductSearchResult result = searchService.search(criteria);
+
+        assertThat(ids(result)).containsExactly("p3");
+        assertThat(result.getFacets().get("brand")).isEqualTo(Map.of("Zenith", 1L));
+    }
+
+    private static Product product(String productId, String category, String brand, String color, String price,
+                                   double rating, boolean active) {
+        var product = new Product();
+        product.setProductId(productId);
+        product.setName(brand + " " + color + " " + category);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setColor(color);
+        product.setPrice(Money.of(new BigDecimal(price), Money.CATALOG_CURRENCY));
+        product.setRating(rating);
+        product.setActive(active);
+        product.setTags(Set.of(category.toLowerCase()));
+        return product;
+    }
+
+    private static List<String> ids(ProductSearchResult result) {
+        return result.getProducts().stream()
+                .map(ProductSummary::getProductId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.users.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Bloom filter of every registered email, so lookups of emails that were never registered (signup
+// checks, credential stuffing) are answered without querying the email index. Until the first
+// rebuild has completed every email is treated as possibly present. Emails added on one pod are
+// broadcast to the other pods' filters, but a broadcast can be lost, so they are also recorded in a
+// Redis set kept for longer than a rebuild takes to pick them up; an absent answer is only given
+// once that set confirms it, and an email that could not be recorded is retried until it is.
+@Component
+public class EmailFilter {
+
+    public static final String ADDITIONS_CHANNEL = "users:email-filter-additions";
+
+    private static final String RECORDED_KEY = "users:email-filter:recorded";
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailFilter.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration recordRetention;
+    // Emails added recently, replayed into a rebuilt filter in case the scan missed their writes
+    private final Cache<String, Boolean> recentlyAdded;
+    // Emails whose Redis record failed, retried until it succeeds
+    private final Set<String> unrecorded = ConcurrentHashMap.newKeySet();
+
+    private final Counter absentCounter;
+    private final Counter maybePresentCounter;
+    private final Counter notReadyCounter;
+    private final Counter recordedCounter;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter rebuilding;
+
+    @Autowired
+    public EmailFilter(StringRedisTemplate redisTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${users.email-filter.expected-insertions:5000000}") long expectedInsertions,
+                       @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                       @Value("${users.email-filter.replay-window:10m}") Duration replayWindow,
+                       @Value("${users.email-filter.record-retention:12h}") Duration recordRetention) {
+        this.redisTemplate = redisTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.recordRetention = recordRetention;
+        this.recentlyAdded = Caffeine.newBuilder()
+                .expireAfterWrite(replayWindow)
+                .build();
+        this.absentCounter = lookupCounter(meterRegistry, "absent");
+        this.maybePresentCounter = lookupCounter(meterRegistry, "maybe_present");
+        this.notReadyCounter = lookupCounter(meterRegistry, "not_ready");
+        this.recordedCounter = lookupCounter(meterRegistry, "recorded");
+    }
+
+    public boolean isDefinitelyAbsent(String email) {
+        BloomFilter filter = current;
+        if (filter == null) {
+            notReadyCounter.increment();
+            return false;
+        }
+        if (filter.mightContain(email)) {
+            maybePresentCounter.increment();
+            return false;
+        }
+        // The filter may have missed a broadcast; anything registered since its rebuild is recorded
+        if (isRecorded(email)) {
+            recordedCounter.increment();
+            return false;
+        }
+        absentCounter.increment();
+        return true;
+    }
+
+    // Called before the write that registers the emails, so no lookup after it can miss them
+    public void add(Collection<String> emails) {
+        var added = emails.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (added.isEmpty()) {
+            return;
+        }
+        added.forEach(this::addLocal);
+
+        try {
+            record(added);
+        } catch (Exception e) {
+            unrecorded.addAll(added);
+            logger.warn("Failed to record {} email filter additions, will retry: {}", added.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.email-filter.record-retry-interval-ms:1000}")
+    public void recordPending() {
+        if (unrecorded.isEmpty()) {
+            return;
+        }
+        List<String> pending = new ArrayList<>(unrecorded);
+        try {
+            record(pending);
+            pending.forEach(unrecorded::remove);
+        } catch (Exception e) {
+            logger.warn("Failed to record {} email filter additions, will retry: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    // Additions broadcast from another pod (or this one), one email per line
+    public void onAdded(String message) {
+        for (String email : message.split("\n")) {
+            addLocal(email);
+        }
+    }
+
+    // Starts collecting into an empty filter; additions made until completeRebuild go to both
+    public BloomFilter beginRebuild() {
+        BloomFilter filter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        rebuilding = filter;
+        return filter;
+    }
+
+    public void completeRebuild(BloomFilter filter, long emails) {
+        recentlyAdded.asMap().keySet().forEach(filter::put);
+        current = filter;
+        rebuilding = null;
+        if (emails > expectedInsertions) {
+            logger.warn("Email filter holds {} emails but is sized for {}; raise users.email-filter.expected-insertions",
+                    emails, expectedInsertions);
+        }
+    }
+
+    public void abortRebuild() {
+        rebuilding = null;
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    // Records the emails in Redis and broadcasts them, trimming records every rebuild has seen by now
+    private void record(List<String> emails) {
+        long now = System.currentTimeMillis();
+        byte[] key = RECORDED_KEY.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String email : emails) {
+                connection.zSetCommands().zAdd(key, now, email.getBytes(StandardCharsets.UTF_8));
+            }
+            connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now - recordRetention.toMillis());
+            connection.publish(ADDITIONS_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    String.join("\n", emails).getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+    }
+
+    private boolean isRecorded(String email) {
+        try {
+            return redisTemplate.opsForZSet().score(RECORDED_KEY, email) != null;
+        } catch (Exception e) {
+            logger.warn("Failed to read email filter records from Redis: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void addLocal(String email) {
+        recentlyAdded.put(email, Boolean.TRUE);
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(email);
+        }
+        filter = rebuilding;
+        if (filter != null) {
+            filter.put(email);
+        }
+    }
+
+    private Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("users.email_filter.lookups")
+                .description("Email lookups by what the email filter answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
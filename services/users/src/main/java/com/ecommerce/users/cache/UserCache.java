@@ -0,0 +1,348 @@
+package com.ecommerce.users.cache;
+
+import com.ecommerce.users.model.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Two-tier user cache: a bounded in-process L1 in front of the shared Redis L2. Users are keyed by
+// id only; emails resolve to ids through a separate alias keyspace, so an update never leaves a
+// second copy of the user behind. L1 holds the same JSON as L2 and every hit gets its own User, so
+// a caller modifying what it was handed can't change what other callers read. Invalidations are
+// broadcast so every pod drops its L1 entries. Hot entries are refreshed probabilistically shortly
+// before they expire (XFetch), so they are not all reloaded at once.
+// A load that read a user before it was written may finish after the invalidation. Callers take a
+// generation() before loading and pass it to put, which drops the user if it was invalidated since;
+// in Redis an invalidated user is replaced with a short-lived tombstone that puts don't overwrite,
+// which covers pods the invalidation broadcast hasn't reached yet.
+@Component
+public class UserCache {
+
+    public static final String INVALIDATION_CHANNEL = "users:cache-invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    private static final String ID_KEY_PREFIX = "users:id:";
+    private static final String EMAIL_KEY_PREFIX = "users:email:";
+    private static final String TOMBSTONE = "~";
+    private static final byte[] SET_UNLESS_TOMBSTONE = ("if redis.call('GET', KEYS[1]) == '" + TOMBSTONE + "' then "
+            + "return 0 end redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final Cache<String, CachedUser> usersById;
+    private final Cache<String, String> userIdsByEmail;
+    private final Cache<String, Boolean> missingUserIds;
+    // Generation at which each recently invalidated user id or email was invalidated
+    private final Cache<String, Long> invalidatedAt;
+    private final AtomicLong generations = new AtomicLong();
+    private final StringRedisTemplate redisTemplate;
+    private final Duration l1Ttl;
+    private final Duration l2Ttl;
+    private final Duration negativeTtl;
+    private final Duration invalidationGrace;
+    private final double earlyRefreshBeta;
+    private final Duration defaultLoadTime;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserCache(StringRedisTemplate redisTemplate,
+                     @Value("${users.cache.l1.max-size:10000}") long l1MaxSize,
+                     @Value("${users.cache.l1.ttl:5m}") Duration l1Ttl,
+                     @Value("${users.cache.l2.ttl:30m}") Duration l2Ttl,
+                     @Value("${users.cache.negative-ttl:1m}") Duration negativeTtl,
+                     @Value("${users.cache.invalidation-grace:30s}") Duration invalidationGrace,
+                     @Value("${users.cache.early-refresh.beta:1.0}") double earlyRefreshBeta,
+                     @Value("${users.cache.early-refresh.default-load-time:10ms}") Duration defaultLoadTime) {
+        this.redisTemplate = redisTemplate;
+        this.l1Ttl = l1Ttl;
+        this.l2Ttl = l2Ttl;
+        this.negativeTtl = negativeTtl;
+        this.invalidationGrace = invalidationGrace;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.defaultLoadTime = defaultLoadTime;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(l1Ttl)
+                .build();
+        this.userIdsByEmail = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(l1Ttl)
+                .build();
+        this.missingUserIds = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        // Longer than any load takes, so a load still running when it expires can't have read the old state
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(invalidationGrace)
+                .build();
+        // The API mapper drops the password hash, but cached users must round-trip it
+        this.objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addMixIn(User.class, CachedUserMixin.class)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    public Optional<User> getById(String userId) {
+        return Optional.ofNullable(getAllById(List.of(userId)).get(userId));
+    }
+
+    // Ids found in neither tier are left out; ids known not to exist are recorded as missing
+    public Map<String, User> getAllById(Collection<String> userIds) {
+        long generation = generation();
+        Map<String, User> found = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+        for (String userId : userIds) {
+            CachedUser cached = usersById.getIfPresent(userId);
+            User user = cached != null ? fromJson(userId, cached.json()) : null;
+            if (user != null) {
+                found.put(userId, user);
+            } else if (missingUserIds.getIfPresent(userId) == null) {
+                remaining.add(userId);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return found;
+        }
+
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(remaining.stream()
+                    .map(userId -> ID_KEY_PREFIX + userId)
+                    .collect(Collectors.toList()));
+            for (int i = 0; values != null && i < remaining.size(); i++) {
+                String userId = remaining.get(i);
+                String json = values.get(i);
+                if (json == null || json.equals(TOMBSTONE)) {
+                    continue;
+                }
+                if (json.isEmpty()) {
+                    if (!isInvalidatedSince(userId, generation)) {
+                        missingUserIds.put(userId, Boolean.TRUE);
+                    }
+                    continue;
+                }
+                User user = objectMapper.readValue(json, User.class);
+                if (!isInvalidatedSince(userId, generation)) {
+                    usersById.put(userId, new CachedUser(json, System.nanoTime() + l1Ttl.toNanos(), defaultLoadTime.toNanos()));
+                }
+                found.put(userId, user);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read users from Redis: {}", e.getMessage());
+        }
+        return found;
+    }
+
+    // XFetch: true with a probability that rises as the L1 entry nears expiry, scaled by how long the
+    // entry took to load, so one caller reloads a hot user just before every pod would miss on it
+    public boolean shouldRefreshEarly(String userId) {
+        CachedUser cached = usersById.getIfPresent(userId);
+        if (cached == null || earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double gap = cached.loadNanos() * earlyRefreshBeta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + gap >= cached.expiresAtNanos();
+    }
+
+    public boolean isKnownMissing(String userId) {
+        return missingUserIds.getIfPresent(userId) != null;
+    }
+
+    public Optional<String> getUserIdByEmail(String email) {
+        String userId = userIdsByEmail.getIfPresent(email);
+        if (userId != null) {
+            return Optional.of(userId);
+        }
+
+        try {
+            userId = redisTemplate.opsForValue().get(EMAIL_KEY_PREFIX + email);
+            if (userId != null) {
+                userIdsByEmail.put(email, userId);
+                return Optional.of(userId);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read email alias from Redis: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // Taken before loading users; pass it to put so users invalidated during the load are dropped
+    public long generation() {
+        return generations.get();
+    }
+
+    public void put(User user, long generation) {
+        putAll(List.of(user), generation);
+    }
+
+    // A user just read from DynamoDB, with the time the read took for early refresh
+    public void put(User user, Duration loadTime, long generation) {
+        putAll(List.of(user), loadTime, generation);
+    }
+
+    public void putAll(Collection<User> users, long generation) {
+        putAll(users, defaultLoadTime, generation);
+    }
+
+    private void putAll(Collection<User> users, Duration loadTime, long generation) {
+        Map<String, String> entries = new HashMap<>();
+        long expiresAtNanos = System.nanoTime() + l1Ttl.toNanos();
+        try {
+            for (User user : users) {
+                if (isInvalidatedSince(user.getUserId(), generation)
+                        || (user.getEmail() != null && isInvalidatedSince(user.getEmail(), generation))) {
+                    continue;
+                }
+                String json = objectMapper.writeValueAsString(user);
+                usersById.put(user.getUserId(), new CachedUser(json, expiresAtNanos, loadTime.toNanos()));
+                missingUserIds.invalidate(user.getUserId());
+                entries.put(ID_KEY_PREFIX + user.getUserId(), json);
+                if (user.getEmail() != null) {
+                    userIdsByEmail.put(user.getEmail(), user.getUserId());
+                    entries.put(EMAIL_KEY_PREFIX + user.getEmail(), user.getUserId());
+                }
+            }
+            writeToRedis(entries, l2Ttl);
+        } catch (Exception e) {
+            logger.warn("Failed to write {} users to Redis: {}", users.size(), e.getMessage());
+        }
+    }
+
+    // Negative entries, so lookups of ids that do not exist stop reaching DynamoDB for a while
+    public void putMissing(Collection<String> userIds, long generation) {
+        Map<String, String> entries = new HashMap<>();
+        for (String userId : userIds) {
+            if (isInvalidatedSince(userId, generation)) {
+                continue;
+            }
+            missingUserIds.put(userId, Boolean.TRUE);
+            entries.put(ID_KEY_PREFIX + userId, "");
+        }
+
+        try {
+            writeToRedis(entries, negativeTtl);
+        } catch (Exception e) {
+            logger.warn("Failed to write missing users to Redis: {}", e.getMessage());
+        }
+    }
+
+    // Drops the user and any of its email aliases from both tiers on every pod
+    public void invalidate(String userId, String... emails) {
+        List<String> knownEmails = Arrays.stream(emails)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        evictLocal(userId, knownEmails);
+
+        try {
+            redisTemplate.opsForValue().set(ID_KEY_PREFIX + userId, TOMBSTONE, invalidationGrace);
+            if (!knownEmails.isEmpty()) {
+                redisTemplate.delete(knownEmails.stream()
+                        .map(email -> EMAIL_KEY_PREFIX + email)
+                        .collect(Collectors.toList()));
+            }
+
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join("\n", messageParts(userId, knownEmails)));
+        } catch (Exception e) {
+            logger.warn("Failed to invalidate user {} in Redis: {}", userId, e.getMessage());
+        }
+    }
+
+    // Invalidation broadcast from another pod (or this one): userId followed by its emails, one per line
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\n");
+        evictLocal(parts[0], Arrays.asList(parts).subList(1, parts.length));
+    }
+
+    // Users and negative entries never replace a tombstone; email aliases are checked on use anyway
+    private void writeToRedis(Map<String, String> entries, Duration ttl) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        byte[] ttlMillis = Long.toString(ttl.toMillis()).getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                byte[] rawValue = value.getBytes(StandardCharsets.UTF_8);
+                if (key.startsWith(ID_KEY_PREFIX)) {
+                    connection.scriptingCommands().eval(SET_UNLESS_TOMBSTONE, ReturnType.INTEGER, 1, rawKey, rawValue, ttlMillis);
+                } else {
+                    connection.stringCommands().set(rawKey, rawValue, Expiration.from(ttl),
+                            RedisStringCommands.SetOption.upsert());
+                }
+            });
+            return null;
+        });
+    }
+
+    private User fromJson(String userId, String json) {
+        try {
+            return objectMapper.readValue(json, User.class);
+        } catch (Exception e) {
+            logger.warn("Failed to read cached user {}: {}", userId, e.getMessage());
+            usersById.invalidate(userId);
+            return null;
+        }
+    }
+
+    private boolean isInvalidatedSince(String key, long generation) {
+        Long invalidated = invalidatedAt.getIfPresent(key);
+        return invalidated != null && invalidated > generation;
+    }
+
+    private void evictLocal(String userId, Collection<String> emails) {
+        long generation = generations.incrementAndGet();
+        invalidatedAt.put(userId, generation);
+        emails.forEach(email -> invalidatedAt.put(email, generation));
+        usersById.invalidate(userId);
+        missingUserIds.invalidate(userId);
+        userIdsByEmail.invalidateAll(emails);
+    }
+
+    private List<String> messageParts(String userId, List<String> emails) {
+        List<String> parts = new ArrayList<>(emails.size() + 1);
+        parts.add(userId);
+        parts.addAll(emails);
+        return parts;
+    }
+
+    private record CachedUser(String json, long expiresAtNanos, long loadNanos) {
+    }
+
+    abstract static class CachedUserMixin {
+
+        @JsonIgnore(false)
+        @JsonProperty("password")
+        abstract String getPassword();
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.users.config;
+
+import com.ecommerce.users.cache.EmailFilter;
+import com.ecommerce.users.cache.UserCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public RedisMessageListenerContainer userCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                       UserCache userCache,
+                                                                       EmailFilter emailFilter) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userCache.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> emailFilter.onAdded(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(EmailFilter.ADDITIONS_CHANNEL));
+        return container;
+    }
+}
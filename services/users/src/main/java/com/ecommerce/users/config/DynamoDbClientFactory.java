@@ -0,0 +1,126 @@
+package com.ecommerce.users.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+
+// Builds the DynamoDB clients with pool, keep-alive, timeout and retry settings taken from
+// aws.dynamodb.client.* instead of the SDK defaults (50 connections, no attempt timeout)
+@Component
+public class DynamoDbClientFactory {
+
+    @Value("${aws.dynamodb.client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${aws.dynamodb.client.connection-ttl:5m}")
+    private Duration connectionTtl;
+
+    @Value("${aws.dynamodb.client.connection-max-idle-time:60s}")
+    private Duration connectionMaxIdleTime;
+
+    @Value("${aws.dynamodb.client.connection-acquisition-timeout:2s}")
+    private Duration connectionAcquisitionTimeout;
+
+    @Value("${aws.dynamodb.client.connection-timeout:1s}")
+    private Duration connectionTimeout;
+
+    @Value("${aws.dynamodb.client.socket-timeout:5s}")
+    private Duration socketTimeout;
+
+    @Value("${aws.dynamodb.client.tcp-keep-alive:true}")
+    private boolean tcpKeepAlive;
+
+    @Value("${aws.dynamodb.client.retry-mode:adaptive}")
+    private String retryMode;
+
+    @Value("${aws.dynamodb.client.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${aws.dynamodb.client.api-call-attempt-timeout:1s}")
+    private Duration apiCallAttemptTimeout;
+
+    @Value("${aws.dynamodb.client.api-call-timeout:5s}")
+    private Duration apiCallTimeout;
+
+    @Value("${aws.dynamodb.async.max-concurrency:500}")
+    private int asyncMaxConcurrency;
+
+    @Value("${aws.dynamodb.async.max-pending-acquires:10000}")
+    private int asyncMaxPendingAcquires;
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public DynamoDbClientFactory(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public DynamoDbClient createClient(Region region, String endpoint) {
+        var builder = DynamoDbClient.builder()
+                .region(region)
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .overrideConfiguration(overrideConfiguration("sync"))
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionTimeToLive(connectionTtl)
+                        .connectionMaxIdleTime(connectionMaxIdleTime)
+                        .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                        .connectionTimeout(connectionTimeout)
+                        .socketTimeout(socketTimeout)
+                        .useIdleConnectionReaper(true)
+                        .tcpKeepAlive(tcpKeepAlive));
+
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    public DynamoDbAsyncClient createAsyncClient(Region region, String endpoint) {
+        var builder = DynamoDbAsyncClient.builder()
+                .region(region)
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .overrideConfiguration(overrideConfiguration("async"))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncMaxConcurrency)
+                        .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                        .connectionTimeToLive(connectionTtl)
+                        .connectionMaxIdleTime(connectionMaxIdleTime)
+                        .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                        .connectionTimeout(connectionTimeout)
+                        .readTimeout(socketTimeout)
+                        .useIdleConnectionReaper(true)
+                        .tcpKeepAlive(tcpKeepAlive));
+
+        if (endpoint != null && !endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    private ClientOverrideConfiguration overrideConfiguration(String client) {
+        return ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.builder(RetryMode.valueOf(retryMode.toUpperCase(Locale.ROOT)))
+                        .numRetries(maxRetries)
+                        .build())
+                .apiCallAttemptTimeout(apiCallAttemptTimeout)
+                .apiCallTimeout(apiCallTimeout)
+                .addMetricPublisher(new HttpPoolMetricPublisher(meterRegistry, client))
+                .build();
+    }
+}
@@ -1,20 +1,27 @@
 package com.ecommerce.users.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import com.ecommerce.users.model.User;
+import com.ecommerce.users.model.UserSchemas;
+import com.ecommerce.users.repository.AdaptiveRateLimiter;
+import com.ecommerce.users.repository.ParallelScanner;
 
-import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class DynamoDbConfig {
@@ -25,31 +32,48 @@ public class DynamoDbConfig {
     @Value("${aws.dynamodb.endpoint:}")
     private String dynamoDbEndpoint;
 
+    @Value("${users.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean
     @Profile("!test")
-    public DynamoDbClient dynamoDbClient() {
-        var builder = DynamoDbClient.builder()
-                .region(Region.of(awsRegion))
-                .credentialsProvider(DefaultCredentialsProvider.create());
-
-        // For local development with DynamoDB Local
-        if (!dynamoDbEndpoint.isEmpty()) {
-            builder.endpointOverride(URI.create(dynamoDbEndpoint));
-        }
+    public DynamoDbClient dynamoDbClient(DynamoDbClientFactory clientFactory) {
+        // For local development with DynamoDB Local, set aws.dynamodb.endpoint
+        return clientFactory.createClient(Region.of(awsRegion), dynamoDbEndpoint);
+    }
+
+    @Bean
+    @Profile("test")
+    public DynamoDbClient testDynamoDbClient(DynamoDbClientFactory clientFactory) {
+        return clientFactory.createClient(Region.US_EAST_1, "http://localhost:8000");
+    }
 
-        return builder.build();
+    // Non-blocking client for the CompletableFuture-based repository; requests wait on the Netty
+    // event loop instead of holding a thread for the whole round trip
+    @Bean
+    @Profile("!test")
+    public DynamoDbAsyncClient dynamoDbAsyncClient(DynamoDbClientFactory clientFactory) {
+        return clientFactory.createAsyncClient(Region.of(awsRegion), dynamoDbEndpoint);
     }
 
     @Bean
     @Profile("test")
-    public DynamoDbClient testDynamoDbClient() {
-        return DynamoDbClient.builder()
-                .region(Region.US_EAST_1)
-                .endpointOverride(URI.create("http://localhost:8000"))
-                .credentialsProvider(DefaultCredentialsProvider.create())
+    public DynamoDbAsyncClient testDynamoDbAsyncClient(DynamoDbClientFactory clientFactory) {
+        return clientFactory.createAsyncClient(Region.US_EAST_1, "http://localhost:8000");
+    }
+
+    @Bean
+    public DynamoDbEnhancedAsyncClient dynamoDbEnhancedAsyncClient(DynamoDbAsyncClient dynamoDbAsyncClient) {
+        return DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
                 .build();
     }
 
+    @Bean
+    public DynamoDbAsyncTable<User> userAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("users", UserSchemas.USER);
+    }
+
     @Bean
     public DynamoDbEnhancedClient dynamoDbEnhancedClient(DynamoDbClient dynamoDbClient) {
         return DynamoDbEnhancedClient.builder()
@@ -59,6 +83,42 @@ public class DynamoDbConfig {
 
     @Bean
     public DynamoDbTable<User> userTable(DynamoDbEnhancedClient enhancedClient) {
-        return enhancedClient.table("users", TableSchema.fromBean(User.class));
+        return enhancedClient.table("users", UserSchemas.USER);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userScanExecutor(@Value("${users.scan.max-threads:8}") int maxThreads) {
+        return repositoryExecutor("user-scan-", maxThreads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userBatchExecutor(@Value("${users.batch.max-threads:8}") int maxThreads) {
+        return repositoryExecutor("user-batch-", maxThreads);
+    }
+
+    // Runs the blocking UserCache calls for AsyncUserRepository, off callers' threads and the SDK's event loop
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userCacheExecutor(@Value("${users.cache.max-threads:16}") int maxThreads) {
+        return repositoryExecutor("user-cache-", maxThreads);
+    }
+
+    @Bean
+    public ParallelScanner<User> userScanner(DynamoDbTable<User> userTable,
+                                             @Qualifier("userScanExecutor") ExecutorService userScanExecutor,
+                                             @Value("${users.scan.segments:8}") int segments,
+                                             @Value("${users.scan.page-size:500}") int pageSize,
+                                             @Value("${users.scan.min-pages-per-second:1}") double minPagesPerSecond,
+                                             @Value("${users.scan.max-pages-per-second:40}") double maxPagesPerSecond) {
+        return new ParallelScanner<>(userTable, userScanExecutor, segments, pageSize,
+                new AdaptiveRateLimiter(minPagesPerSecond, maxPagesPerSecond));
+    }
+
+    // With virtual threads each task gets its own thread and the HTTP connection pool becomes the
+    // concurrency limit; otherwise a fixed pool of platform threads bounds concurrent DynamoDB calls
+    private ExecutorService repositoryExecutor(String threadNamePrefix, int maxThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+        }
+        return Executors.newFixedThreadPool(maxThreads, new CustomizableThreadFactory(threadNamePrefix));
     }
 }
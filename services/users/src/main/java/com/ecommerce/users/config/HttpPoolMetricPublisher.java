@@ -0,0 +1,65 @@
+package com.ecommerce.users.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Exposes the connection pool state the SDK reports with every request as Micrometer gauges, so
+// connection acquisition waits show up as pending acquires before they show up as latency
+public class HttpPoolMetricPublisher implements MetricPublisher {
+
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger max = new AtomicInteger();
+
+    public HttpPoolMetricPublisher(MeterRegistry meterRegistry, String client) {
+        Gauge.builder("dynamodb.http.pool.leased", leased, AtomicInteger::get)
+                .description("Connections or streams currently in use")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("dynamodb.http.pool.pending", pending, AtomicInteger::get)
+                .description("Requests waiting to acquire a connection")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("dynamodb.http.pool.available", available, AtomicInteger::get)
+                .description("Idle connections ready to be leased")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("dynamodb.http.pool.max", max, AtomicInteger::get)
+                .description("Maximum connections or concurrent streams")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("dynamodb.http.pool.saturation", this, publisher -> publisher.saturation())
+                .description("Leased connections as a fraction of the maximum")
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        record(metricCollection);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void record(MetricCollection collection) {
+        collection.metricValues(HttpMetric.LEASED_CONCURRENCY).forEach(leased::set);
+        collection.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES).forEach(pending::set);
+        collection.metricValues(HttpMetric.AVAILABLE_CONCURRENCY).forEach(available::set);
+        collection.metricValues(HttpMetric.MAX_CONCURRENCY).forEach(max::set);
+        collection.children().forEach(this::record);
+    }
+
+    private double saturation() {
+        int maxConcurrency = max.get();
+        return maxConcurrency > 0 ? (double) leased.get() / maxConcurrency : 0;
+    }
+}
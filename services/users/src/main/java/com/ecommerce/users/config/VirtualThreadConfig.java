@@ -0,0 +1,20 @@
+package com.ecommerce.users.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+// Opt-in: runs each request on its own virtual thread instead of Tomcat's bounded platform pool,
+// so blocking DynamoDB and Redis calls no longer cap concurrency at server.tomcat.threads.max
+@Configuration
+@ConditionalOnProperty(name = "users.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
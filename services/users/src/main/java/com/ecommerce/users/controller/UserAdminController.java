@@ -0,0 +1,38 @@
+package com.ecommerce.users.controller;
+
+import com.ecommerce.users.service.UserReindexJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/users/admin")
+public class UserAdminController {
+
+    private final UserReindexJob userReindexJob;
+
+    @Autowired
+    public UserAdminController(UserReindexJob userReindexJob) {
+        this.userReindexJob = userReindexJob;
+    }
+
+    @PostMapping("/reindex")
+    public ResponseEntity<Map<String, Object>> reindex() {
+        if (!userReindexJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("running", true, "message", "Reindex already in progress"));
+        }
+        return ResponseEntity.accepted().body(Map.of("running", true));
+    }
+
+    @GetMapping("/reindex")
+    public Map<String, Object> reindexStatus() {
+        return Map.of("running", userReindexJob.isRunning());
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.users.controller;
+
+import com.ecommerce.users.model.User;
+import com.ecommerce.users.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api/users/export")
+public class UserExportController {
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public UserExportController(UserRepository userRepository, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Writes one JSON document per line while pulling pages from DynamoDB; a slow client blocks
+    // the writer, which in turn stops the next page from being fetched
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) String role,
+                                                             @RequestParam(required = false) Boolean enabled) {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<User> users = selectUsers(role, enabled);
+                 SequenceWriter writer = objectMapper.writer()
+                         .withRootValueSeparator("\n")
+                         .writeValues(outputStream)) {
+                Iterator<User> iterator = users.iterator();
+                if (!iterator.hasNext()) {
+                    return;
+                }
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+                writer.flush();
+                outputStream.write('\n');
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private Stream<User> selectUsers(String role, Boolean enabled) {
+        if (role != null) {
+            return userRepository.streamByRole(role);
+        }
+        if (enabled != null) {
+            return userRepository.streamByEnabled(enabled);
+        }
+        return userRepository.streamAll();
+    }
+}
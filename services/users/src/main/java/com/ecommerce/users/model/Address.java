@@ -2,8 +2,14 @@ package com.ecommerce.users.model;
 
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @DynamoDbBean
 public class Address {
@@ -15,6 +21,9 @@ public class Address {
     private String country;
     private String addressType; // HOME, WORK, OTHER
 
+    // Attribute names changed since trackChanges(); null while not tracking
+    private Set<String> dirtyAttributes;
+
     public Address() {}
 
     public Address(String street, String city, String state, String zipCode, String country) {
@@ -34,6 +43,7 @@ public class Address {
 
     public void setStreet(String street) {
         this.street = street;
+        markDirty("street");
     }
 
     @DynamoDbAttribute("city")
@@ -44,6 +54,7 @@ public class Address {
 
     public void setCity(String city) {
         this.city = city;
+        markDirty("city");
     }
 
     @DynamoDbAttribute("state")
@@ -54,6 +65,7 @@ public class Address {
 
     public void setState(String state) {
         this.state = state;
+        markDirty("state");
     }
 
     @DynamoDbAttribute("zipCode")
@@ -65,6 +77,7 @@ public class Address {
 
     public void setZipCode(String zipCode) {
         this.zipCode = zipCode;
+        markDirty("zipCode");
     }
 
     @DynamoDbAttribute("country")
@@ -75,6 +88,7 @@ public class Address {
 
     public void setCountry(String country) {
         this.country = country;
+        markDirty("country");
     }
 
     @DynamoDbAttribute("addressType")
@@ -84,6 +98,29 @@ public class Address {
 
     public void setAddressType(String addressType) {
         this.addressType = addressType;
+        markDirty("addressType");
+    }
+
+    public void trackChanges() {
+        this.dirtyAttributes = new LinkedHashSet<>();
+    }
+
+    public void clearChanges() {
+        if (dirtyAttributes != null) {
+            dirtyAttributes.clear();
+        }
+    }
+
+    @DynamoDbIgnore
+    @JsonIgnore
+    public Set<String> getDirtyAttributes() {
+        return dirtyAttributes != null ? Collections.unmodifiableSet(dirtyAttributes) : Collections.emptySet();
+    }
+
+    private void markDirty(String attribute) {
+        if (dirtyAttributes != null) {
+            dirtyAttributes.add(attribute);
+        }
     }
 
     public String getFormattedAddress() {
@@ -0,0 +1,43 @@
+package com.ecommerce.users.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// Stores timestamps in UTC with exactly millisecond precision, so they order correctly as strings
+// when used as sort keys or compared in conditions; Instant.toString() drops trailing zero fractions.
+// Reads either form, so items written before still load.
+public class TimestampAttributeConverter implements AttributeConverter<Instant> {
+
+    private static final DateTimeFormatter FORMAT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    public static String format(Instant instant) {
+        return FORMAT.format(instant);
+    }
+
+    @Override
+    public AttributeValue transformFrom(Instant input) {
+        return AttributeValue.builder().s(format(input)).build();
+    }
+
+    @Override
+    public Instant transformTo(AttributeValue input) {
+        return Instant.parse(input.s());
+    }
+
+    @Override
+    public EnhancedType<Instant> type() {
+        return EnhancedType.of(Instant.class);
+    }
+
+    @Override
+    public AttributeValueType attributeValueType() {
+        return AttributeValueType.S;
+    }
+}
@@ -12,11 +12,17 @@ import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Collections;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 @DynamoDbBean
 public class User {
+
+    public static final String DISABLED = "DISABLED";
     
     private String userId;
     private String email;
@@ -28,14 +34,19 @@ public class User {
     private boolean enabled = true;
     private boolean emailVerified = false;
     private Instant createdAt;
+    private String createdBucket;
     private Instant updatedAt;
     private Instant lastLoginAt;
     private String profileImageUrl;
     private Address defaultAddress;
+    private Long version;
+
+    // Attribute names changed since trackChanges(); null while not tracking
+    private Set<String> dirtyAttributes;
 
     // Default constructor required by DynamoDB
     public User() {
-        this.createdAt = Instant.now();
+        setCreatedAt(Instant.now());
         this.updatedAt = Instant.now();
         this.roles.add("USER");
     }
@@ -57,6 +68,7 @@ public class User {
 
     public void setUserId(String userId) {
         this.userId = userId;
+        markDirty("userId");
     }
 
     @DynamoDbSecondaryPartitionKey(indexNames = "email-index")
@@ -69,6 +81,7 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        markDirty("email");
     }
 
     @DynamoDbAttribute("firstName")
@@ -80,6 +93,7 @@ public class User {
 
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        markDirty("firstName");
     }
 
     @DynamoDbAttribute("lastName")
@@ -91,6 +105,7 @@ public class User {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        markDirty("lastName");
     }
 
     @DynamoDbAttribute("password")
@@ -102,6 +117,7 @@ public class User {
 
     public void setPassword(String password) {
         this.password = password;
+        markDirty("password");
     }
 
     @DynamoDbAttribute("phoneNumber")
@@ -111,6 +127,7 @@ public class User {
 
     public void setPhoneNumber(String phoneNumber) {
         this.phoneNumber = phoneNumber;
+        markDirty("phoneNumber");
     }
 
     @DynamoDbAttribute("roles")
@@ -120,6 +137,7 @@ public class User {
 
     public void setRoles(Set<String> roles) {
         this.roles = roles;
+        markDirty("roles");
     }
 
     @DynamoDbAttribute("enabled")
@@ -129,6 +147,23 @@ public class User {
 
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
+        markDirty("enabled");
+        markDirty("enabledStatus");
+    }
+
+    // String mirror of `enabled`, since boolean attributes cannot be index keys. Set only for disabled
+    // users, so the enabled-index is sparse instead of one hot partition holding nearly every user.
+    // Always derived from `enabled`: the mapper applies attributes in item order, so a stored copy
+    // could otherwise override the value derived from the stored `enabled`.
+    @DynamoDbSecondaryPartitionKey(indexNames = "enabled-index")
+    @DynamoDbAttribute("enabledStatus")
+    @JsonIgnore
+    public String getEnabledStatus() {
+        return enabledStatusOf(enabled);
+    }
+
+    // Required by the mapper; the stored value is ignored
+    public void setEnabledStatus(String enabledStatus) {
     }
 
     @DynamoDbAttribute("emailVerified")
@@ -138,15 +173,35 @@ public class User {
 
     public void setEmailVerified(boolean emailVerified) {
         this.emailVerified = emailVerified;
+        markDirty("emailVerified");
     }
 
+    // Sort key of the created and enabled indexes, so stored at fixed width
+    @DynamoDbSecondarySortKey(indexNames = {"created-index", "enabled-index"})
     @DynamoDbAttribute("createdAt")
+    @DynamoDbConvertedBy(TimestampAttributeConverter.class)
     public Instant getCreatedAt() {
         return createdAt;
     }
 
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
+        markDirty("createdAt");
+        markDirty("createdBucket");
+    }
+
+    // Month of creation; partitions the created-index so recent users can be queried newest first.
+    // Derived from createdAt when there is one, whichever of the two the mapper applied last.
+    @DynamoDbSecondaryPartitionKey(indexNames = "created-index")
+    @DynamoDbAttribute("createdBucket")
+    @JsonIgnore
+    public String getCreatedBucket() {
+        return createdAt != null ? createdBucketOf(createdAt) : createdBucket;
+    }
+
+    public void setCreatedBucket(String createdBucket) {
+        this.createdBucket = createdBucket;
+        markDirty("createdBucket");
     }
 
     @DynamoDbAttribute("updatedAt")
@@ -156,6 +211,7 @@ public class User {
 
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
+        markDirty("updatedAt");
     }
 
     @DynamoDbAttribute("lastLoginAt")
@@ -165,6 +221,7 @@ public class User {
 
     public void setLastLoginAt(Instant lastLoginAt) {
         this.lastLoginAt = lastLoginAt;
+        markDirty("lastLoginAt");
     }
 
     @DynamoDbAttribute("profileImageUrl")
@@ -174,6 +231,7 @@ public class User {
 
     public void setProfileImageUrl(String profileImageUrl) {
         this.profileImageUrl = profileImageUrl;
+        markDirty("profileImageUrl");
     }
 
     @DynamoDbAttribute("defaultAddress")
@@ -183,6 +241,46 @@ public class User {
 
     public void setDefaultAddress(Address defaultAddress) {
         this.defaultAddress = defaultAddress;
+        markDirty("defaultAddress");
+    }
+
+    // Incremented on every write and used for optimistic locking
+    @DynamoDbAttribute("version")
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Starts recording which attributes are modified, so that a patch writes only those
+    public void trackChanges() {
+        this.dirtyAttributes = new LinkedHashSet<>();
+        if (defaultAddress != null) {
+            defaultAddress.trackChanges();
+        }
+    }
+
+    public void clearChanges() {
+        if (dirtyAttributes != null) {
+            dirtyAttributes.clear();
+        }
+        if (defaultAddress != null) {
+            defaultAddress.clearChanges();
+        }
+    }
+
+    @DynamoDbIgnore
+    @JsonIgnore
+    public Set<String> getDirtyAttributes() {
+        return dirtyAttributes != null ? Collections.unmodifiableSet(dirtyAttributes) : Collections.emptySet();
+    }
+
+    private void markDirty(String attribute) {
+        if (dirtyAttributes != null) {
+            dirtyAttributes.add(attribute);
+        }
     }
 
     // Helper methods
@@ -192,10 +290,12 @@ public class User {
 
     public void addRole(String role) {
         this.roles.add(role);
+        markDirty("roles");
     }
 
     public void removeRole(String role) {
         this.roles.remove(role);
+        markDirty("roles");
     }
 
     public boolean hasRole(String role) {
@@ -203,8 +303,16 @@ public class User {
     }
 
     public void updateLastLogin() {
-        this.lastLoginAt = Instant.now();
-        this.updatedAt = Instant.now();
+        setLastLoginAt(Instant.now());
+        setUpdatedAt(Instant.now());
+    }
+
+    public static String enabledStatusOf(boolean enabled) {
+        return enabled ? null : DISABLED;
+    }
+
+    public static String createdBucketOf(Instant instant) {
+        return YearMonth.from(instant.atOffset(ZoneOffset.UTC)).toString();
     }
 
     private String generateUserId() {
@@ -0,0 +1,107 @@
+package com.ecommerce.users.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondaryPartitionKey;
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.secondarySortKey;
+
+// Hand-built equivalents of TableSchema.fromBean for User and Address: plain getter/setter method
+// references instead of bean introspection at startup and generated accessors on every item.
+// Attributes are listed alphabetically, like the bean schema, but the order carries no meaning:
+// items are mapped in the order of their attribute map, so the derived createdBucket and
+// enabledStatus are computed in their getters. Keep these in sync with the @DynamoDbAttribute getters.
+public final class UserSchemas {
+
+    public static final TableSchema<Address> ADDRESS = StaticTableSchema.builder(Address.class)
+            .newItemSupplier(Address::new)
+            .addAttribute(String.class, a -> a.name("addressType")
+                    .getter(Address::getAddressType)
+                    .setter(Address::setAddressType))
+            .addAttribute(String.class, a -> a.name("city")
+                    .getter(Address::getCity)
+                    .setter(Address::setCity))
+            .addAttribute(String.class, a -> a.name("country")
+                    .getter(Address::getCountry)
+                    .setter(Address::setCountry))
+            .addAttribute(String.class, a -> a.name("state")
+                    .getter(Address::getState)
+                    .setter(Address::setState))
+            .addAttribute(String.class, a -> a.name("street")
+                    .getter(Address::getStreet)
+                    .setter(Address::setStreet))
+            .addAttribute(String.class, a -> a.name("zipCode")
+                    .getter(Address::getZipCode)
+                    .setter(Address::setZipCode))
+            .build();
+
+    public static final TableSchema<User> USER = StaticTableSchema.builder(User.class)
+            .newItemSupplier(User::new)
+            .addAttribute(Instant.class, a -> a.name("createdAt")
+                    .getter(User::getCreatedAt)
+                    .setter(User::setCreatedAt)
+                    .attributeConverter(new TimestampAttributeConverter())
+                    .tags(secondarySortKey(List.of("created-index", "enabled-index"))))
+            .addAttribute(String.class, a -> a.name("createdBucket")
+                    .getter(User::getCreatedBucket)
+                    .setter(User::setCreatedBucket)
+                    .tags(secondaryPartitionKey("created-index")))
+            .addAttribute(EnhancedType.documentOf(Address.class, ADDRESS), a -> a.name("defaultAddress")
+                    .getter(User::getDefaultAddress)
+                    .setter(User::setDefaultAddress))
+            .addAttribute(String.class, a -> a.name("email")
+                    .getter(User::getEmail)
+                    .setter(User::setEmail)
+                    .tags(secondaryPartitionKey("email-index")))
+            .addAttribute(Boolean.class, a -> a.name("emailVerified")
+                    .getter(User::isEmailVerified)
+                    .setter(User::setEmailVerified))
+            .addAttribute(Boolean.class, a -> a.name("enabled")
+                    .getter(User::isEnabled)
+                    .setter(User::setEnabled))
+            .addAttribute(String.class, a -> a.name("enabledStatus")
+                    .getter(User::getEnabledStatus)
+                    .setter(User::setEnabledStatus)
+                    .tags(secondaryPartitionKey("enabled-index")))
+            .addAttribute(String.class, a -> a.name("firstName")
+                    .getter(User::getFirstName)
+                    .setter(User::setFirstName))
+            .addAttribute(Instant.class, a -> a.name("lastLoginAt")
+                    .getter(User::getLastLoginAt)
+                    .setter(User::setLastLoginAt))
+            .addAttribute(String.class, a -> a.name("lastName")
+                    .getter(User::getLastName)
+                    .setter(User::setLastName))
+            .addAttribute(String.class, a -> a.name("password")
+                    .getter(User::getPassword)
+                    .setter(User::setPassword))
+            .addAttribute(String.class, a -> a.name("phoneNumber")
+                    .getter(User::getPhoneNumber)
+                    .setter(User::setPhoneNumber))
+            .addAttribute(String.class, a -> a.name("profileImageUrl")
+                    .getter(User::getProfileImageUrl)
+                    .setter(User::setProfileImageUrl))
+            .addAttribute(EnhancedType.setOf(String.class), a -> a.name("roles")
+                    .getter(User::getRoles)
+                    .setter(User::setRoles))
+            .addAttribute(Instant.class, a -> a.name("updatedAt")
+                    .getter(User::getUpdatedAt)
+                    .setter(User::setUpdatedAt))
+            .addAttribute(String.class, a -> a.name("userId")
+                    .getter(User::getUserId)
+                    .setter(User::setUserId)
+                    .tags(primaryPartitionKey()))
+            .addAttribute(Long.class, a -> a.name("version")
+                    .getter(User::getVersion)
+                    .setter(User::setVersion))
+            .build();
+
+    private UserSchemas() {
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.users.repository;
+
+import com.ecommerce.users.cache.EmailFilter;
+import com.ecommerce.users.cache.UserCache;
+import com.ecommerce.users.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+// Non-blocking variant of the UserRepository lookups. Writes stay on UserRepository, since they
+// need the transactional role index and counter maintenance implemented there. UserCache and
+// EmailFilter block on Redis, so their calls run on a dedicated executor, never on the caller's
+// thread or in the SDK's completion callbacks.
+@Repository
+public class AsyncUserRepository {
+
+    private final DynamoDbAsyncTable<User> userAsyncTable;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final UserCache userCache;
+    private final EmailFilter emailFilter;
+    private final ExecutorService cacheExecutor;
+    private final int maxBatchAttempts;
+
+    @Autowired
+    public AsyncUserRepository(DynamoDbAsyncTable<User> userAsyncTable,
+                               DynamoDbAsyncClient dynamoDbAsyncClient,
+                               UserCache userCache,
+                               EmailFilter emailFilter,
+                               @Qualifier("userCacheExecutor") ExecutorService cacheExecutor,
+                               @Value("${users.batch.max-attempts:8}") int maxBatchAttempts) {
+        this.userAsyncTable = userAsyncTable;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.userCache = userCache;
+        this.emailFilter = emailFilter;
+        this.cacheExecutor = cacheExecutor;
+        this.maxBatchAttempts = maxBatchAttempts;
+    }
+
+    public CompletableFuture<Optional<User>> findById(String userId) {
+        return CompletableFuture.supplyAsync(() -> userCache.getById(userId), cacheExecutor)
+                .thenCompose(cached -> cached.isPresent() || userCache.isKnownMissing(userId)
+                        ? CompletableFuture.completedFuture(cached)
+                        : loadById(userId));
+    }
+
+    private CompletableFuture<Optional<User>> loadById(String userId) {
+        long generation = userCache.generation();
+        return userAsyncTable.getItem(request -> request
+                        .key(Key.builder()
+                                .partitionValue(userId)
+                                .build())
+                        .consistentRead(true))
+                .thenApplyAsync(user -> {
+                    if (user != null) {
+                        userCache.put(user, generation);
+                    } else {
+                        userCache.putMissing(List.of(userId), generation);
+                    }
+                    return Optional.ofNullable(user);
+                }, cacheExecutor)
+                .exceptionally(e -> Optional.empty());
+    }
+
+    public CompletableFuture<Optional<User>> findByEmail(String email) {
+        return CompletableFuture.supplyAsync(() -> userCache.getUserIdByEmail(email), cacheExecutor)
+                .thenCompose(cachedUserId -> {
+                    if (cachedUserId.isEmpty()) {
+                        return queryByEmail(email);
+                    }
+                    return findById(cachedUserId.get()).thenCompose(user -> {
+                        if (user.isPresent() && email.equals(user.get().getEmail())) {
+                            return CompletableFuture.completedFuture(user);
+                        }
+                        return queryByEmail(email);
+                    });
+                });
+    }
+
+    public CompletableFuture<Boolean> existsByEmail(String email) {
+        return CompletableFuture.supplyAsync(() -> emailFilter.isDefinitelyAbsent(email), cacheExecutor)
+                .thenCompose(absent -> absent
+                        ? CompletableFuture.completedFuture(false)
+                        : findByEmail(email).thenApply(Optional::isPresent));
+    }
+
+    public CompletableFuture<List<User>> findAllByIds(Collection<String> userIds) {
+        List<String> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        return CompletableFuture.supplyAsync(() -> userCache.getAllById(ids), cacheExecutor)
+                .thenCompose(cached -> loadMissing(ids, new HashMap<>(cached)));
+    }
+
+    private CompletableFuture<List<User>> loadMissing(List<String> ids, Map<String, User> found) {
+        List<String> toLoad = ids.stream()
+                .filter(userId -> !found.containsKey(userId) && !userCache.isKnownMissing(userId))
+                .collect(Collectors.toList());
+        long generation = userCache.generation();
+
+        List<CompletableFuture<List<User>>> chunks = new ArrayList<>();
+        for (int from = 0; from < toLoad.size(); from += DynamoDbBatchExecutor.MAX_GET_KEYS) {
+            List<String> chunk = toLoad.subList(from, Math.min(from + DynamoDbBatchExecutor.MAX_GET_KEYS, toLoad.size()));
+            chunks.add(batchGet(keysOf(chunk), 1, new ArrayList<>()));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApplyAsync(done -> {
+            List<User> loaded = new ArrayList<>();
+            chunks.forEach(chunk -> loaded.addAll(chunk.join()));
+            loaded.forEach(user -> found.put(user.getUserId(), user));
+
+            if (!toLoad.isEmpty()) {
+                userCache.putAll(loaded, generation);
+                userCache.putMissing(toLoad.stream()
+                        .filter(userId -> !found.containsKey(userId))
+                        .collect(Collectors.toList()), generation);
+            }
+
+            return ids.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }, cacheExecutor);
+    }
+
+    private CompletableFuture<Optional<User>> queryByEmail(String email) {
+        var queryRequest = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(email)
+                        .build()))
+                .limit(1)
+                .build();
+
+        long generation = userCache.generation();
+        AtomicReference<User> first = new AtomicReference<>();
+        return userAsyncTable.index("email-index").query(queryRequest)
+                .limit(1)
+                .subscribe(page -> page.items().stream().findFirst().ifPresent(first::set))
+                .thenApplyAsync(done -> {
+                    User user = first.get();
+                    if (user != null) {
+                        userCache.put(user, generation);
+                    }
+                    return Optional.ofNullable(user);
+                }, cacheExecutor)
+                .exceptionally(e -> Optional.empty());
+    }
+
+    // Re-requests unprocessed keys after a jittered, exponentially growing delay without blocking a thread
+    private CompletableFuture<List<User>> batchGet(List<Map<String, AttributeValue>> keys, int attempt, List<User> loaded) {
+        var request = BatchGetItemRequest.builder()
+                .requestItems(Map.of(userAsyncTable.tableName(), KeysAndAttributes.builder().keys(keys).consistentRead(true).build()))
+                .build();
+
+        return dynamoDbAsyncClient.batchGetItem(request).thenCompose(response -> {
+            response.responses().getOrDefault(userAsyncTable.tableName(), List.of())
+                    .forEach(item -> loaded.add(userAsyncTable.tableSchema().mapToItem(item)));
+
+            KeysAndAttributes unprocessed = response.unprocessedKeys().get(userAsyncTable.tableName());
+            if (unprocessed == null || unprocessed.keys().isEmpty()) {
+                return CompletableFuture.completedFuture(loaded);
+            }
+            if (attempt >= maxBatchAttempts) {
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        "BatchGetItem still had unprocessed keys after " + maxBatchAttempts + " attempts"));
+            }
+
+            long delayMillis = ThreadLocalRandom.current().nextLong(Math.min(2000, 25L << Math.min(attempt, 20)) + 1);
+            return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> batchGet(unprocessed.keys(), attempt + 1, loaded));
+        });
+    }
+
+    private List<Map<String, AttributeValue>> keysOf(Collection<String> userIds) {
+        return userIds.stream()
+                .map(userId -> Map.of("userId", AttributeValue.builder().s(userId).build()))
+                .collect(Collectors.toList());
+    }
+}
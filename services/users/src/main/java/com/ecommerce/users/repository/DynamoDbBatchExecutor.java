@@ -0,0 +1,151 @@
+package com.ecommerce.users.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Splits large key and write sets into BatchGetItem/BatchWriteItem sized chunks, runs the chunks
+// concurrently and retries unprocessed items with exponential backoff and full jitter
+@Component
+public class DynamoDbBatchExecutor {
+
+    static final int MAX_GET_KEYS = 100;
+    static final int MAX_WRITE_ITEMS = 25;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final ExecutorService executor;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    @Autowired
+    public DynamoDbBatchExecutor(DynamoDbClient dynamoDbClient,
+                                 @Qualifier("userBatchExecutor") ExecutorService executor,
+                                 @Value("${users.batch.max-attempts:8}") int maxAttempts,
+                                 @Value("${users.batch.base-backoff-ms:25}") long baseBackoffMillis,
+                                 @Value("${users.batch.max-backoff-ms:2000}") long maxBackoffMillis) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.executor = executor;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public List<Map<String, AttributeValue>> getAll(String tableName, List<Map<String, AttributeValue>> keys,
+                                                    String projectionExpression, Map<String, String> attributeNames) {
+        List<CompletableFuture<List<Map<String, AttributeValue>>>> chunks = new ArrayList<>();
+        for (List<Map<String, AttributeValue>> chunk : partition(keys, MAX_GET_KEYS)) {
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> getChunk(tableName, chunk, projectionExpression, attributeNames), executor));
+        }
+        join(chunks);
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>(keys.size());
+        chunks.forEach(chunk -> items.addAll(chunk.join()));
+        return items;
+    }
+
+    // Each entry is a table name and a put or delete request for that table
+    public void writeAll(List<Map.Entry<String, WriteRequest>> writes) {
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (List<Map.Entry<String, WriteRequest>> chunk : partition(writes, MAX_WRITE_ITEMS)) {
+            chunks.add(CompletableFuture.runAsync(() -> writeChunk(chunk), executor));
+        }
+        join(chunks);
+    }
+
+    private List<Map<String, AttributeValue>> getChunk(String tableName, List<Map<String, AttributeValue>> keys,
+                                                       String projectionExpression, Map<String, String> attributeNames) {
+        // Callers diff or cache what they read, so it must include every write acknowledged before
+        var keysAndAttributes = KeysAndAttributes.builder().keys(keys).consistentRead(true);
+        if (projectionExpression != null) {
+            keysAndAttributes.projectionExpression(projectionExpression);
+        }
+        if (attributeNames != null && !attributeNames.isEmpty()) {
+            keysAndAttributes.expressionAttributeNames(attributeNames);
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>(keys.size());
+        Map<String, KeysAndAttributes> requestItems = Map.of(tableName, keysAndAttributes.build());
+
+        for (int attempt = 1; !requestItems.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                backoff(attempt, "BatchGetItem");
+            }
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(requestItems)
+                    .build());
+            items.addAll(response.responses().getOrDefault(tableName, Collections.emptyList()));
+            requestItems = response.unprocessedKeys();
+        }
+        return items;
+    }
+
+    private void writeChunk(List<Map.Entry<String, WriteRequest>> chunk) {
+        Map<String, List<WriteRequest>> requestItems = new HashMap<>();
+        chunk.forEach(write -> requestItems.computeIfAbsent(write.getKey(), table -> new ArrayList<>()).add(write.getValue()));
+
+        Map<String, List<WriteRequest>> pending = requestItems;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                backoff(attempt, "BatchWriteItem");
+            }
+            BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+            pending = response.unprocessedItems();
+        }
+    }
+
+    private void backoff(int attempt, String operation) {
+        if (attempt > maxAttempts) {
+            throw new IllegalStateException(operation + " still had unprocessed items after " + maxAttempts + " attempts");
+        }
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 2, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(operation + " was interrupted", e);
+        }
+    }
+
+    private void join(List<? extends CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(from + size, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.users.repository;
+
+import com.ecommerce.users.model.TimestampAttributeConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Coalesces last-login timestamps per user and writes them on a timer as single-attribute updates.
+// A burst of logins by one user costs one write per flush interval instead of a get and a full put each.
+// Timestamps are written with millisecond precision in a fixed-width format, so the condition that
+// keeps an older flush from overwriting a newer one can compare them as strings; Instant.toString()
+// drops trailing zero fractions and would not order correctly.
+@Component
+public class LastLoginWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginWriteBehind.class);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final ConcurrentHashMap<String, Instant> pending = new ConcurrentHashMap<>();
+    private final ExecutorService flushExecutor;
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+    private final int maxPending;
+    private final int batchSize;
+
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public LastLoginWriteBehind(DynamoDbClient dynamoDbClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${users.last-login.max-pending:10000}") int maxPending,
+                                @Value("${users.last-login.batch-size:25}") int batchSize,
+                                @Value("${users.last-login.flush-threads:4}") int flushThreads) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.flushExecutor = Executors.newFixedThreadPool(flushThreads, new CustomizableThreadFactory("last-login-flush-"));
+
+        Gauge.builder("users.last_login.buffer.size", pending, Map::size)
+                .description("Users with a buffered last-login update")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("users.last_login.flush")
+                .description("Time to flush buffered last-login updates")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("users.last_login.writes")
+                .tag("result", "written")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("users.last_login.writes")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    public void record(String userId, Instant lastLoginAt) {
+        pending.merge(userId, lastLoginAt, (current, next) -> next.isAfter(current) ? next : current);
+
+        // Bound memory under a login storm without making the login itself wait for DynamoDB
+        if (pending.size() >= maxPending && earlyFlushScheduled.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    flush();
+                } finally {
+                    earlyFlushScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.last-login.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> {
+            List<Map.Entry<String, Instant>> drained = new ArrayList<>(pending.size());
+            for (String userId : pending.keySet()) {
+                Instant lastLoginAt = pending.remove(userId);
+                if (lastLoginAt != null) {
+                    drained.add(Map.entry(userId, lastLoginAt));
+                }
+            }
+
+            for (int from = 0; from < drained.size(); from += batchSize) {
+                List<Map.Entry<String, Instant>> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+                CompletableFuture.allOf(batch.stream()
+                                .map(entry -> CompletableFuture.runAsync(
+                                        () -> write(entry.getKey(), entry.getValue()), flushExecutor))
+                                .toArray(CompletableFuture[]::new))
+                        .join();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        flushExecutor.shutdown();
+    }
+
+    private void write(String userId, Instant lastLoginAt) {
+        AttributeValue timestamp = AttributeValue.builder().s(TimestampAttributeConverter.format(lastLoginAt)).build();
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName("users")
+                    .key(Map.of("userId", AttributeValue.builder().s(userId).build()))
+                    .updateExpression("SET lastLoginAt = :lastLoginAt")
+                    .conditionExpression("attribute_exists(userId) AND "
+                            + "(attribute_not_exists(lastLoginAt) OR lastLoginAt < :lastLoginAt)")
+                    .expressionAttributeValues(Map.of(":lastLoginAt", timestamp))
+                    .build());
+            writtenCounter.increment();
+        } catch (ConditionalCheckFailedException e) {
+            // Deleted user, or a newer login was already written
+        } catch (Exception e) {
+            failedCounter.increment();
+            pending.merge(userId, lastLoginAt, (current, next) -> next.isAfter(current) ? next : current);
+            logger.warn("Failed to write last login for user {}, will retry: {}", userId, e.getMessage());
+        }
+    }
+}
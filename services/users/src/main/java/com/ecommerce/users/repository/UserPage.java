@@ -0,0 +1,29 @@
+package com.ecommerce.users.repository;
+
+import com.ecommerce.users.model.User;
+
+import java.util.List;
+
+public class UserPage {
+
+    private final List<User> users;
+    private final String nextCursor;
+
+    public UserPage(List<User> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    // Opaque continuation token, null once there is nothing left to read
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -1,48 +1,199 @@
 package com.ecommerce.users.repository;
 
+import com.ecommerce.users.cache.EmailFilter;
+import com.ecommerce.users.cache.UserCache;
+import com.ecommerce.users.model.Address;
+import com.ecommerce.users.model.TimestampAttributeConverter;
 import com.ecommerce.users.model.User;
+import com.ecommerce.users.model.UserSchemas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public class UserRepository {
 
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final Set<String> UNPATCHABLE_ATTRIBUTES = Set.of("userId", "updatedAt", "version", "lastLoginAt");
+    private static final TableSchema<Address> ADDRESS_SCHEMA = UserSchemas.ADDRESS;
+    private static final String CURRENT_STATE_PROJECTION = "userId, email, lastLoginAt, #roles, #updatedAt, #version";
+    private static final String INDEXED_STATE_PROJECTION = "userId, createdAt, enabled, #roles, #updatedAt, #version";
+    private static final Map<String, String> CURRENT_STATE_NAMES = Map.of(
+            "#roles", "roles", "#updatedAt", "updatedAt", "#version", "version");
+
     private final DynamoDbTable<User> userTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final UserStatsRepository userStatsRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final DynamoDbBatchExecutor batchExecutor;
+    private final UserCache userCache;
+    private final EmailFilter emailFilter;
+    private final LastLoginWriteBehind lastLoginWriteBehind;
+    private final SingleFlight<String, Optional<User>> userIdLoads;
+    private final SingleFlight<String, Optional<User>> emailLoads;
+    private final Counter earlyRefreshCounter;
+
+    private final int recentUsersLookbackMonths;
+    private final int recentUsersMaxPageSize;
 
     @Autowired
-    public UserRepository(DynamoDbTable<User> userTable) {
+    public UserRepository(DynamoDbTable<User> userTable,
+                          DynamoDbClient dynamoDbClient,
+                          UserStatsRepository userStatsRepository,
+                          UserRoleRepository userRoleRepository,
+                          DynamoDbBatchExecutor batchExecutor,
+                          UserCache userCache,
+                          EmailFilter emailFilter,
+                          LastLoginWriteBehind lastLoginWriteBehind,
+                          MeterRegistry meterRegistry,
+                          @Value("${users.recent-users.lookback-months:24}") int recentUsersLookbackMonths,
+                          @Value("${users.recent-users.max-page-size:100}") int recentUsersMaxPageSize) {
         this.userTable = userTable;
+        this.dynamoDbClient = dynamoDbClient;
+        this.userStatsRepository = userStatsRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.batchExecutor = batchExecutor;
+        this.userCache = userCache;
+        this.emailFilter = emailFilter;
+        this.lastLoginWriteBehind = lastLoginWriteBehind;
+        this.recentUsersLookbackMonths = recentUsersLookbackMonths;
+        this.recentUsersMaxPageSize = recentUsersMaxPageSize;
+        this.userIdLoads = new SingleFlight<>(meterRegistry, "findById");
+        this.emailLoads = new SingleFlight<>(meterRegistry, "findByEmail");
+        this.earlyRefreshCounter = Counter.builder("users.cache.early_refresh")
+                .description("Cached users reloaded before their L1 entry expired")
+                .register(meterRegistry);
     }
 
-    @Cacheable(value = "users", key = "#userId")
+    // Concurrent misses for the same id share one GetItem; a hit close to expiry may be chosen to
+    // reload the user ahead of time while everyone else keeps getting the cached copy
     public Optional<User> findById(String userId) {
+        Optional<User> cached = userCache.getById(userId);
+        if (cached.isPresent()) {
+            if (!userCache.shouldRefreshEarly(userId)) {
+                return cached;
+            }
+            earlyRefreshCounter.increment();
+            Optional<User> refreshed = userIdLoads.execute(userId, () -> loadById(userId));
+            return refreshed.isPresent() ? refreshed : cached;
+        }
+        if (userCache.isKnownMissing(userId)) {
+            return cached;
+        }
+        return userIdLoads.execute(userId, () -> loadById(userId));
+    }
+
+    // Resolves many users at once, e.g. the customers of a page of orders. Cache hits and known
+    // misses are served from the cache tiers; the rest is read with chunked, concurrent
+    // BatchGetItem calls and written back to the cache, misses included.
+    public List<User> findAllByIds(Collection<String> userIds) {
+        List<String> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, User> found = new HashMap<>(userCache.getAllById(ids));
+
+        List<String> toLoad = ids.stream()
+                .filter(userId -> !found.containsKey(userId) && !userCache.isKnownMissing(userId))
+                .collect(Collectors.toList());
+        if (!toLoad.isEmpty()) {
+            long generation = userCache.generation();
+            List<User> loaded = loadUsers(toLoad);
+            loaded.forEach(user -> found.put(user.getUserId(), user));
+            userCache.putAll(loaded, generation);
+            userCache.putMissing(toLoad.stream()
+                    .filter(userId -> !found.containsKey(userId))
+                    .collect(Collectors.toList()), generation);
+        }
+
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<User> findByEmail(String email) {
+        Optional<String> cachedUserId = userCache.getUserIdByEmail(email);
+        if (cachedUserId.isPresent()) {
+            // The alias may outlive an email change, so only trust it if the user still has this email
+            Optional<User> user = findById(cachedUserId.get());
+            if (user.isPresent() && email.equals(user.get().getEmail())) {
+                return user;
+            }
+        }
+
+        return emailLoads.execute(email, () -> loadByEmail(email));
+    }
+
+    // Reads consistently, so a reload right after a write can't put the previous state back
+    private Optional<User> loadById(String userId) {
         try {
-            User user = userTable.getItem(Key.builder()
-                    .partitionValue(userId)
-                    .build());
+            long generation = userCache.generation();
+            long start = System.nanoTime();
+            User user = userTable.getItem(request -> request
+                    .key(Key.builder()
+                            .partitionValue(userId)
+                            .build())
+                    .consistentRead(true));
+            if (user != null) {
+                userCache.put(user, Duration.ofNanos(System.nanoTime() - start), generation);
+            } else {
+                userCache.putMissing(List.of(userId), generation);
+            }
             return Optional.ofNullable(user);
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
-    @Cacheable(value = "users", key = "#email")
-    public Optional<User> findByEmail(String email) {
+    private Optional<User> loadByEmail(String email) {
         try {
+            long generation = userCache.generation();
             var queryRequest = QueryEnhancedRequest.builder()
                     .queryConditional(QueryConditional.keyEqualTo(Key.builder()
                             .partitionValue(email)
@@ -51,93 +202,588 @@ public class UserRepository {
 
             var results = userTable.index("email-index").query(queryRequest);
             
-            return results.stream()
+            Optional<User> user = results.stream()
                     .flatMap(page -> page.items().stream())
                     .findFirst();
+            user.ifPresent(found -> userCache.put(found, generation));
+            return user;
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
-    @CacheEvict(value = "users", key = "#user.userId")
     public User save(User user) {
+        Long expectedVersion = user.getVersion();
         user.setUpdatedAt(Instant.now());
-        userTable.putItem(user);
-        return user;
+        emailFilter.add(Collections.singletonList(user.getEmail()));
+
+        for (int attempt = 1; ; attempt++) {
+            Map<String, AttributeValue> current = currentState(user.getUserId());
+            checkExpectedVersion(user.getUserId(), expectedVersion, current);
+            List<TransactWriteItem> writes = new ArrayList<>();
+
+            // A new user bumps the user count; an existing one must not have changed since it was read
+            if (current.isEmpty()) {
+                user.setVersion(1L);
+                writes.add(TransactWriteItem.builder()
+                        .put(Put.builder()
+                                .tableName(userTable.tableName())
+                                .item(fullItem(user, current))
+                                .conditionExpression("attribute_not_exists(userId)")
+                                .build())
+                        .build());
+                writes.add(userStatsRepository.userCountAdjustment(1));
+            } else {
+                Map<String, String> names = new HashMap<>();
+                Map<String, AttributeValue> values = new HashMap<>();
+                // Last-login flushes don't bump the version, so check the value carried over separately
+                String condition = unchangedCondition(current, names, values) + " AND " + lastLoginUnchanged(current, values);
+                user.setVersion(nextVersion(current));
+                writes.add(TransactWriteItem.builder()
+                        .put(Put.builder()
+                                .tableName(userTable.tableName())
+                                .item(fullItem(user, current))
+                                .conditionExpression(condition)
+                                .expressionAttributeNames(names)
+                                .expressionAttributeValues(values)
+                                .build())
+                        .build());
+            }
+            writes.addAll(userRoleRepository.roleChanges(user.getUserId(), rolesOf(current), user.getRoles()));
+
+            if (writeTransaction(writes, user.getUserId(), attempt)) {
+                invalidate(user.getUserId(), stringOf(current, "email"), user.getEmail());
+                user.clearChanges();
+                return user;
+            }
+        }
+    }
+
+    // Bulk variant of save for imports and migrations, written with chunked BatchWriteItem calls.
+    // Batch writes cannot be conditional, so there is no optimistic locking here, and the user count
+    // is adjusted once for the batch; the reconciliation job corrects it if a batch fails midway.
+    public List<User> saveAll(Collection<User> users) {
+        Map<String, User> byId = new LinkedHashMap<>();
+        users.forEach(user -> byId.put(user.getUserId(), user));
+        if (byId.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Map<String, AttributeValue>> current = new HashMap<>();
+        batchExecutor.getAll(userTable.tableName(), keysOf(byId.keySet()), CURRENT_STATE_PROJECTION, CURRENT_STATE_NAMES)
+                .forEach(item -> current.put(item.get("userId").s(), item));
+
+        Instant now = Instant.now();
+        long created = 0;
+        List<Map.Entry<String, WriteRequest>> writes = new ArrayList<>();
+        for (User user : byId.values()) {
+            Map<String, AttributeValue> stored = current.getOrDefault(user.getUserId(), Collections.emptyMap());
+            if (stored.isEmpty()) {
+                created++;
+            }
+            user.setUpdatedAt(now);
+            user.setVersion(nextVersion(stored));
+
+            writes.add(Map.entry(userTable.tableName(), WriteRequest.builder()
+                    .putRequest(PutRequest.builder()
+                            .item(fullItem(user, stored))
+                            .build())
+                    .build()));
+            userRoleRepository.roleWriteRequests(user.getUserId(), rolesOf(stored), user.getRoles())
+                    .forEach(request -> writes.add(Map.entry(UserRoleRepository.TABLE_NAME, request)));
+        }
+
+        emailFilter.add(byId.values().stream()
+                .map(User::getEmail)
+                .collect(Collectors.toList()));
+        batchExecutor.writeAll(writes);
+        if (created > 0) {
+            userStatsRepository.adjustUserCount(created);
+        }
+
+        for (User user : byId.values()) {
+            Map<String, AttributeValue> stored = current.getOrDefault(user.getUserId(), Collections.emptyMap());
+            invalidate(user.getUserId(), stringOf(stored, "email"), user.getEmail());
+            user.clearChanges();
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    // Writes only the attributes modified on `changes` since User.trackChanges(). If `changes` carries
+    // a version, the patch fails with OptimisticLockingFailureException unless it is still current.
+    public void patch(String userId, User changes) {
+        Set<String> dirty = new LinkedHashSet<>(changes.getDirtyAttributes());
+        dirty.removeAll(UNPATCHABLE_ATTRIBUTES);
+        Address address = changes.getDefaultAddress();
+        boolean addressFieldsDirty = !dirty.contains("defaultAddress")
+                && address != null && !address.getDirtyAttributes().isEmpty();
+        if (dirty.isEmpty() && !addressFieldsDirty) {
+            return;
+        }
+
+        if (dirty.contains("email")) {
+            emailFilter.add(Collections.singletonList(changes.getEmail()));
+        }
+
+        Instant now = Instant.now();
+        for (int attempt = 1; ; attempt++) {
+            Map<String, AttributeValue> current = currentState(userId);
+            if (current.isEmpty()) {
+                throw new IllegalArgumentException("User not found: " + userId);
+            }
+            checkExpectedVersion(userId, changes.getVersion(), current);
+
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            List<String> sets = new ArrayList<>();
+            List<String> removes = new ArrayList<>();
+
+            for (String attribute : dirty) {
+                AttributeValue value = userTable.tableSchema().attributeValue(changes, attribute);
+                names.put("#" + attribute, attribute);
+                if (value == null || Boolean.TRUE.equals(value.nul())) {
+                    removes.add("#" + attribute);
+                } else {
+                    values.put(":" + attribute, value);
+                    sets.add("#" + attribute + " = :" + attribute);
+                }
+            }
+            if (addressFieldsDirty) {
+                names.put("#defaultAddress", "defaultAddress");
+                for (String attribute : address.getDirtyAttributes()) {
+                    AttributeValue value = ADDRESS_SCHEMA.attributeValue(address, attribute);
+                    names.put("#address_" + attribute, attribute);
+                    if (value == null || Boolean.TRUE.equals(value.nul())) {
+                        removes.add("#defaultAddress.#address_" + attribute);
+                    } else {
+                        values.put(":address_" + attribute, value);
+                        sets.add("#defaultAddress.#address_" + attribute + " = :address_" + attribute);
+                    }
+                }
+            }
+
+            long nextVersion = nextVersion(current);
+            names.put("#updatedAt", "updatedAt");
+            values.put(":updatedAt", AttributeValue.builder().s(now.toString()).build());
+            sets.add("#updatedAt = :updatedAt");
+            names.put("#version", "version");
+            values.put(":nextVersion", AttributeValue.builder().n(Long.toString(nextVersion)).build());
+            sets.add("#version = :nextVersion");
+
+            String condition = unchangedCondition(current, names, values);
+            String updateExpression = "SET " + String.join(", ", sets)
+                    + (removes.isEmpty() ? "" : " REMOVE " + String.join(", ", removes));
+
+            List<TransactWriteItem> writes = new ArrayList<>();
+            writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                            .tableName(userTable.tableName())
+                            .key(Map.of("userId", AttributeValue.builder().s(userId).build()))
+                            .updateExpression(updateExpression)
+                            .conditionExpression(condition)
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .build())
+                    .build());
+            if (dirty.contains("roles")) {
+                writes.addAll(userRoleRepository.roleChanges(userId, rolesOf(current), changes.getRoles()));
+            }
+
+            if (writeTransaction(writes, userId, attempt)) {
+                invalidate(userId, stringOf(current, "email"), changes.getEmail());
+                changes.setUpdatedAt(now);
+                changes.setVersion(nextVersion);
+                changes.clearChanges();
+                return;
+            }
+        }
     }
 
-    @CacheEvict(value = "users", key = "#userId")
     public void deleteById(String userId) {
-        userTable.deleteItem(Key.builder()
-                .partitionValue(userId)
-                .build());
+        for (int attempt = 1; ; attempt++) {
+            Map<String, AttributeValue> current = currentState(userId);
+            if (current.isEmpty()) {
+                return;
+            }
+
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            String condition = unchangedCondition(current, names, values);
+
+            List<TransactWriteItem> writes = new ArrayList<>();
+            writes.add(TransactWriteItem.builder()
+                    .delete(Delete.builder()
+                            .tableName(userTable.tableName())
+                            .key(Map.of("userId", AttributeValue.builder().s(userId).build()))
+                            .conditionExpression(condition)
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .build())
+                    .build());
+            writes.add(userStatsRepository.userCountAdjustment(-1));
+            writes.addAll(userRoleRepository.roleChanges(userId, rolesOf(current), Collections.emptySet()));
+
+            if (writeTransaction(writes, userId, attempt)) {
+                invalidate(userId, stringOf(current, "email"));
+                return;
+            }
+        }
     }
 
+    // Rewrites the derived index attributes and role items of a stored user without touching updatedAt.
+    // They are derived from a consistent read and written only while the user is unchanged, so a save
+    // or patch racing the reindex can't have a removed role or the old status written back.
+    // Attributes the stored user lacks are skipped rather than derived from the User defaults.
+    public void reindex(String userId) {
+        for (int attempt = 1; ; attempt++) {
+            Map<String, AttributeValue> current = dynamoDbClient.getItem(GetItemRequest.builder()
+                            .tableName(userTable.tableName())
+                            .key(Map.of("userId", AttributeValue.builder().s(userId).build()))
+                            .projectionExpression(INDEXED_STATE_PROJECTION)
+                            .expressionAttributeNames(CURRENT_STATE_NAMES)
+                            .consistentRead(true)
+                            .build())
+                    .item();
+            if (current.isEmpty()) {
+                return;
+            }
+
+            List<String> updates = new ArrayList<>();
+            List<String> removes = new ArrayList<>();
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            String createdAt = stringOf(current, "createdAt");
+            if (createdAt != null) {
+                // Also rewrites a createdAt stored before it was written at fixed width
+                Instant created = Instant.parse(createdAt);
+                updates.add("createdAt = :createdAt");
+                updates.add("createdBucket = :createdBucket");
+                values.put(":createdAt", AttributeValue.builder()
+                        .s(TimestampAttributeConverter.format(created))
+                        .build());
+                values.put(":createdBucket", AttributeValue.builder()
+                        .s(User.createdBucketOf(created))
+                        .build());
+            }
+            AttributeValue enabled = current.get("enabled");
+            if (enabled != null && enabled.bool() != null) {
+                String enabledStatus = User.enabledStatusOf(enabled.bool());
+                if (enabledStatus != null) {
+                    updates.add("enabledStatus = :enabledStatus");
+                    values.put(":enabledStatus", AttributeValue.builder().s(enabledStatus).build());
+                } else {
+                    removes.add("enabledStatus");
+                }
+            }
+            Set<String> roles = rolesOf(current);
+            if (updates.isEmpty() && removes.isEmpty() && roles.isEmpty()) {
+                return;
+            }
+
+            String condition = unchangedCondition(current, names, values);
+            Map<String, AttributeValue> key = Map.of("userId", AttributeValue.builder().s(userId).build());
+            List<TransactWriteItem> writes = new ArrayList<>();
+            if (updates.isEmpty() && removes.isEmpty()) {
+                writes.add(TransactWriteItem.builder()
+                        .conditionCheck(ConditionCheck.builder()
+                                .tableName(userTable.tableName())
+                                .key(key)
+                                .conditionExpression(condition)
+                                .expressionAttributeNames(names)
+                                .expressionAttributeValues(values)
+                                .build())
+                        .build());
+            } else {
+                writes.add(TransactWriteItem.builder()
+                        .update(Update.builder()
+                                .tableName(userTable.tableName())
+                                .key(key)
+                                .updateExpression(((updates.isEmpty() ? "" : "SET " + String.join(", ", updates))
+                                        + (removes.isEmpty() ? "" : " REMOVE " + String.join(", ", removes))).trim())
+                                .conditionExpression(condition)
+                                .expressionAttributeNames(names)
+                                .expressionAttributeValues(values)
+                                .build())
+                        .build());
+            }
+            writes.addAll(userRoleRepository.roleChanges(userId, Collections.emptySet(), roles));
+
+            // Changed or deleted since it was read; the next attempt reads it again
+            if (writeTransaction(writes, userId, attempt)) {
+                return;
+            }
+        }
+    }
+
+    // Signup checks for unregistered emails are answered by the email filter, without the index query
     public boolean existsByEmail(String email) {
+        if (emailFilter.isDefinitelyAbsent(email)) {
+            return false;
+        }
         return findByEmail(email).isPresent();
     }
 
     public List<User> findAll() {
-        return userTable.scan(ScanEnhancedRequest.builder().build())
-                .items()
-                .stream()
-                .collect(Collectors.toList());
+        try (Stream<User> users = streamAll()) {
+            return users.collect(Collectors.toList());
+        }
     }
 
     public List<User> findByRole(String role) {
-        var scanRequest = ScanEnhancedRequest.builder()
-                .filterExpression(software.amazon.awssdk.enhanced.dynamodb.Expression.builder()
-                        .expression("contains(#roles, :role)")
-                        .putExpressionName("#roles", "roles")
-                        .putExpressionValue(":role", AttributeValue.builder().s(role).build())
-                        .build())
-                .build();
+        try (Stream<User> users = streamByRole(role)) {
+            return users.collect(Collectors.toList());
+        }
+    }
 
-        return userTable.scan(scanRequest)
-                .items()
+    public List<User> findByEnabled(boolean enabled) {
+        try (Stream<User> users = streamByEnabled(enabled)) {
+            return users.collect(Collectors.toList());
+        }
+    }
+
+    // The stream variants fetch the next page only once the previous one has been consumed,
+    // so memory stays bounded by a single page regardless of table size
+    public Stream<User> streamAll() {
+        return userTable.scan(ScanEnhancedRequest.builder().build())
                 .stream()
-                .collect(Collectors.toList());
+                .flatMap(page -> page.items().stream());
     }
 
-    public List<User> findByEnabled(boolean enabled) {
-        var scanRequest = ScanEnhancedRequest.builder()
-                .filterExpression(software.amazon.awssdk.enhanced.dynamodb.Expression.builder()
-                        .expression("#enabled = :enabled")
-                        .putExpressionName("#enabled", "enabled")
-                        .putExpressionValue(":enabled", AttributeValue.builder().bool(enabled).build())
-                        .build())
+    public Stream<User> streamByRole(String role) {
+        return userRoleRepository.findUserIdPagesByRole(role)
+                .flatMap(userIds -> loadUsers(userIds).stream());
+    }
+
+    // Only disabled users are in the sparse enabled-index; enabled users, nearly all of them, are read
+    // with a filtered scan
+    public Stream<User> streamByEnabled(boolean enabled) {
+        if (enabled) {
+            var scanRequest = ScanEnhancedRequest.builder()
+                    .filterExpression(Expression.builder()
+                            .expression("attribute_not_exists(#enabled) OR #enabled = :enabled")
+                            .putExpressionName("#enabled", "enabled")
+                            .putExpressionValue(":enabled", AttributeValue.builder().bool(true).build())
+                            .build())
+                    .build();
+            return userTable.scan(scanRequest)
+                    .stream()
+                    .flatMap(page -> page.items().stream());
+        }
+
+        var queryRequest = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                        .partitionValue(User.DISABLED)
+                        .build()))
                 .build();
 
-        return userTable.scan(scanRequest)
-                .items()
+        return userTable.index("enabled-index").query(queryRequest)
                 .stream()
-                .collect(Collectors.toList());
+                .flatMap(page -> page.items().stream());
     }
 
     public List<User> findRecentUsers(int limit) {
-        var scanRequest = ScanEnhancedRequest.builder()
-                .limit(limit)
-                .build();
+        return findRecentUsers(limit, null).getUsers();
+    }
+
+    // Walks the monthly created-index buckets newest first, reading at most `limit` items. `limit` is
+    // clamped to 1..users.recent-users.max-page-size.
+    public UserPage findRecentUsers(int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, recentUsersMaxPageSize));
+        YearMonth oldestBucket = YearMonth.now(ZoneOffset.UTC).minusMonths(recentUsersLookbackMonths);
+        YearMonth bucket;
+        Map<String, AttributeValue> startKey;
+
+        if (cursor == null) {
+            bucket = YearMonth.now(ZoneOffset.UTC);
+            startKey = null;
+        } else {
+            String[] parts = decodeCursor(cursor);
+            bucket = YearMonth.parse(parts[0]);
+            startKey = parts.length == 3 ? Map.of(
+                    "createdBucket", AttributeValue.builder().s(parts[0]).build(),
+                    "userId", AttributeValue.builder().s(parts[1]).build(),
+                    "createdAt", AttributeValue.builder().s(parts[2]).build()) : null;
+        }
+
+        List<User> users = new ArrayList<>(pageSize);
+        while (users.size() < pageSize && !bucket.isBefore(oldestBucket)) {
+            var queryRequest = QueryEnhancedRequest.builder()
+                    .queryConditional(QueryConditional.keyEqualTo(Key.builder()
+                            .partitionValue(bucket.toString())
+                            .build()))
+                    .scanIndexForward(false)
+                    .limit(pageSize - users.size())
+                    .exclusiveStartKey(startKey)
+                    .build();
+
+            Page<User> page = userTable.index("created-index").query(queryRequest).iterator().next();
+            users.addAll(page.items());
+
+            startKey = page.lastEvaluatedKey();
+            if (startKey == null) {
+                bucket = bucket.minusMonths(1);
+            }
+        }
+
+        String nextCursor = null;
+        if (!bucket.isBefore(oldestBucket)) {
+            nextCursor = startKey == null
+                    ? encodeCursor(bucket.toString())
+                    : encodeCursor(bucket.toString(), startKey.get("userId").s(), startKey.get("createdAt").s());
+        }
+        return new UserPage(users, nextCursor);
+    }
+
+    // Buffered: lastLoginAt reaches DynamoDB within one flush interval and is not reflected in
+    // cached copies of the user until they expire or are next invalidated. save, saveAll and patch
+    // never write it.
+    public void updateLastLogin(String userId) {
+        lastLoginWriteBehind.record(userId, Instant.now());
+    }
+
+    public long count() {
+        return userStatsRepository.getUserCount();
+    }
+
+    private String encodeCursor(String... parts) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("|", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|");
+            YearMonth.parse(parts[0]);
+            if (parts.length != 1 && parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
 
-        return userTable.scan(scanRequest)
-                .items()
+    private List<User> loadUsers(List<String> userIds) {
+        return batchExecutor.getAll(userTable.tableName(), keysOf(userIds), null, null)
                 .stream()
-                .sorted((u1, u2) -> u2.getCreatedAt().compareTo(u1.getCreatedAt()))
-                .limit(limit)
+                .map(item -> userTable.tableSchema().mapToItem(item))
                 .collect(Collectors.toList());
     }
 
-    @CacheEvict(value = "users", key = "#userId")
-    public void updateLastLogin(String userId) {
-        Optional<User> userOpt = findById(userId);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.updateLastLogin();
-            save(user);
+    private List<Map<String, AttributeValue>> keysOf(Collection<String> userIds) {
+        return userIds.stream()
+                .map(userId -> Map.of("userId", AttributeValue.builder().s(userId).build()))
+                .collect(Collectors.toList());
+    }
+
+    // Just enough of the stored item to diff role index entries, invalidate the email alias and
+    // detect concurrent writes
+    private Map<String, AttributeValue> currentState(String userId) {
+        return dynamoDbClient.getItem(GetItemRequest.builder()
+                        .tableName(userTable.tableName())
+                        .key(Map.of("userId", AttributeValue.builder().s(userId).build()))
+                        .projectionExpression(CURRENT_STATE_PROJECTION)
+                        .expressionAttributeNames(CURRENT_STATE_NAMES)
+                        .consistentRead(true)
+                        .build())
+                .item();
+    }
+
+    // Condition that the stored user is still the one returned by currentState. Users written
+    // before versioning are compared by updatedAt instead.
+    private String unchangedCondition(Map<String, AttributeValue> current,
+                                      Map<String, String> names, Map<String, AttributeValue> values) {
+        if (current.containsKey("version")) {
+            names.put("#version", "version");
+            values.put(":storedVersion", current.get("version"));
+            return "attribute_exists(userId) AND #version = :storedVersion";
         }
+        names.put("#updatedAt", "updatedAt");
+        values.put(":storedUpdatedAt", current.get("updatedAt"));
+        return "attribute_exists(userId) AND #updatedAt = :storedUpdatedAt";
     }
 
-    public long count() {
-        return userTable.scan().items().stream().count();
+    // lastLoginAt is only ever written by LastLoginWriteBehind; a full-item write carries the stored
+    // value over, whatever the user object holds, so it can't undo a flush
+    private Map<String, AttributeValue> fullItem(User user, Map<String, AttributeValue> current) {
+        Map<String, AttributeValue> item = new HashMap<>(userTable.tableSchema().itemToMap(user, true));
+        item.remove("lastLoginAt");
+        AttributeValue lastLoginAt = current.get("lastLoginAt");
+        if (lastLoginAt != null) {
+            item.put("lastLoginAt", lastLoginAt);
+        }
+        return item;
+    }
+
+    private String lastLoginUnchanged(Map<String, AttributeValue> current, Map<String, AttributeValue> values) {
+        AttributeValue lastLoginAt = current.get("lastLoginAt");
+        if (lastLoginAt == null) {
+            return "attribute_not_exists(lastLoginAt)";
+        }
+        values.put(":storedLastLoginAt", lastLoginAt);
+        return "lastLoginAt = :storedLastLoginAt";
+    }
+
+    private void checkExpectedVersion(String userId, Long expectedVersion, Map<String, AttributeValue> current) {
+        if (expectedVersion != null && !current.isEmpty() && !expectedVersion.equals(versionOf(current))) {
+            throw new OptimisticLockingFailureException(
+                    "User " + userId + " is at version " + versionOf(current) + ", expected " + expectedVersion);
+        }
+    }
+
+    private Long versionOf(Map<String, AttributeValue> item) {
+        AttributeValue value = item.get("version");
+        return value != null && value.n() != null ? Long.valueOf(value.n()) : null;
+    }
+
+    private long nextVersion(Map<String, AttributeValue> current) {
+        Long version = versionOf(current);
+        return version != null ? version + 1 : 1;
+    }
+
+    private String stringOf(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue value = item.get(attribute);
+        return value != null ? value.s() : null;
+    }
+
+    private Set<String> rolesOf(Map<String, AttributeValue> item) {
+        AttributeValue roles = item.get("roles");
+        return roles != null && roles.hasSs() ? new HashSet<>(roles.ss()) : Collections.emptySet();
+    }
+
+    // Evicts the user from both cache tiers and drops any load still in flight, so no caller is
+    // handed the state from before the write
+    private void invalidate(String userId, String... emails) {
+        userCache.invalidate(userId, emails);
+        userIdLoads.forget(userId);
+        for (String email : emails) {
+            if (email != null) {
+                emailLoads.forget(email);
+            }
+        }
+    }
+
+    // Returns false when the user changed since it was read and the write should be retried
+    private boolean writeTransaction(List<TransactWriteItem> writes, String userId, int attempt) {
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(writes)
+                    .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (!isConditionalCheckFailure(e)) {
+                throw e;
+            }
+            if (attempt >= MAX_WRITE_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("User " + userId + " was modified concurrently", e);
+            }
+            return false;
+        }
+    }
+
+    private boolean isConditionalCheckFailure(TransactionCanceledException e) {
+        return e.hasCancellationReasons() && e.cancellationReasons().stream()
+                .anyMatch(reason -> "ConditionalCheckFailed".equals(reason.code()));
     }
 }
@@ -0,0 +1,108 @@
+package com.ecommerce.users.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Adjacency list of (role, userId) items so that role lookups are key queries instead of table scans
+@Repository
+public class UserRoleRepository {
+
+    static final String TABLE_NAME = "user-roles";
+
+    private final DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    public UserRoleRepository(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    // Puts for added roles and deletes for removed ones, to be written in the same transaction as the user
+    public List<TransactWriteItem> roleChanges(String userId, Set<String> oldRoles, Set<String> newRoles) {
+        List<TransactWriteItem> changes = new ArrayList<>();
+        for (String role : added(oldRoles, newRoles)) {
+            changes.add(TransactWriteItem.builder()
+                    .put(Put.builder()
+                            .tableName(TABLE_NAME)
+                            .item(key(role, userId))
+                            .build())
+                    .build());
+        }
+        for (String role : added(newRoles, oldRoles)) {
+            changes.add(TransactWriteItem.builder()
+                    .delete(Delete.builder()
+                            .tableName(TABLE_NAME)
+                            .key(key(role, userId))
+                            .build())
+                    .build());
+        }
+        return changes;
+    }
+
+    // Same changes as roleChanges, as BatchWriteItem requests for bulk writes
+    public List<WriteRequest> roleWriteRequests(String userId, Set<String> oldRoles, Set<String> newRoles) {
+        List<WriteRequest> requests = new ArrayList<>();
+        for (String role : added(oldRoles, newRoles)) {
+            requests.add(WriteRequest.builder()
+                    .putRequest(PutRequest.builder().item(key(role, userId)).build())
+                    .build());
+        }
+        for (String role : added(newRoles, oldRoles)) {
+            requests.add(WriteRequest.builder()
+                    .deleteRequest(DeleteRequest.builder().key(key(role, userId)).build())
+                    .build());
+        }
+        return requests;
+    }
+
+    // Lazily pages through the role partition, at most one BatchGetItem worth of ids per page
+    public Stream<List<String>> findUserIdPagesByRole(String role) {
+        return dynamoDbClient.queryPaginator(QueryRequest.builder()
+                        .tableName(TABLE_NAME)
+                        .limit(100)
+                        .keyConditionExpression("#role = :role")
+                        .expressionAttributeNames(Map.of("#role", "role"))
+                        .expressionAttributeValues(Map.of(":role", AttributeValue.builder().s(role).build()))
+                        .build())
+                .stream()
+                .map(response -> response.items().stream()
+                        .map(item -> item.get("userId").s())
+                        .collect(Collectors.toList()))
+                .filter(userIds -> !userIds.isEmpty());
+    }
+
+    private Set<String> added(Set<String> before, Set<String> after) {
+        if (after == null || after.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> added = new HashSet<>(after);
+        if (before != null) {
+            added.removeAll(before);
+        }
+        return added;
+    }
+
+    private Map<String, AttributeValue> key(String role, String userId) {
+        return Map.of(
+                "role", AttributeValue.builder().s(role).build(),
+                "userId", AttributeValue.builder().s(userId).build());
+    }
+}
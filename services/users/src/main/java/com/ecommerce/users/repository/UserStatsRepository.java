@@ -0,0 +1,133 @@
+package com.ecommerce.users.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Repository
+public class UserStatsRepository {
+
+    static final String TABLE_NAME = "user-stats";
+    static final String USER_COUNT = "userCount";
+    static final String RECONCILE_LOCK = "reconcileLock";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final int counterShards;
+
+    @Autowired
+    public UserStatsRepository(DynamoDbClient dynamoDbClient,
+                               @Value("${users.stats.counter-shards:10}") int counterShards) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.counterShards = counterShards;
+    }
+
+    // Counter update on a random shard, meant to be part of the same transaction as the user write
+    public TransactWriteItem userCountAdjustment(long delta) {
+        return TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(TABLE_NAME)
+                        .key(shardKey(randomShard()))
+                        .updateExpression("ADD #count :delta")
+                        .expressionAttributeNames(Map.of("#count", "count"))
+                        .expressionAttributeValues(Map.of(":delta", number(delta)))
+                        .build())
+                .build();
+    }
+
+    public void adjustUserCount(long delta) {
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(shardKey(0))
+                .updateExpression("ADD #count :delta")
+                .expressionAttributeNames(Map.of("#count", "count"))
+                .expressionAttributeValues(Map.of(":delta", number(delta)))
+                .build());
+    }
+
+    // Sums the shards with a single query, independent of the size of the users table
+    public long getUserCount() {
+        var response = dynamoDbClient.query(QueryRequest.builder()
+                .tableName(TABLE_NAME)
+                .keyConditionExpression("statId = :statId")
+                .expressionAttributeValues(Map.of(":statId", AttributeValue.builder().s(USER_COUNT).build()))
+                .projectionExpression("#count")
+                .expressionAttributeNames(Map.of("#count", "count"))
+                .build());
+
+        return response.items().stream()
+                .map(item -> item.get("count"))
+                .filter(value -> value != null && value.n() != null)
+                .mapToLong(value -> Long.parseLong(value.n()))
+                .sum();
+    }
+
+    // Lease so that only one pod reconciles at a time; the holder renews it by acquiring it again and
+    // releases it when done, and it expires on its own if the holder dies
+    public boolean tryAcquireReconcileLock(String owner, Duration leaseTime) {
+        long now = Instant.now().toEpochMilli();
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(reconcileLockKey())
+                    .updateExpression("SET lockedUntil = :lockedUntil, #owner = :owner")
+                    .conditionExpression("attribute_not_exists(lockedUntil) OR lockedUntil < :now OR #owner = :owner")
+                    .expressionAttributeNames(Map.of("#owner", "owner"))
+                    .expressionAttributeValues(Map.of(
+                            ":lockedUntil", number(now + leaseTime.toMillis()),
+                            ":now", number(now),
+                            ":owner", AttributeValue.builder().s(owner).build()))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    public void releaseReconcileLock(String owner) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(reconcileLockKey())
+                    .updateExpression("REMOVE lockedUntil, #owner")
+                    .conditionExpression("#owner = :owner")
+                    .expressionAttributeNames(Map.of("#owner", "owner"))
+                    .expressionAttributeValues(Map.of(":owner", AttributeValue.builder().s(owner).build()))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Expired and taken over by another pod
+        }
+    }
+
+    private Map<String, AttributeValue> reconcileLockKey() {
+        return Map.of(
+                "statId", AttributeValue.builder().s(RECONCILE_LOCK).build(),
+                "shard", number(0));
+    }
+
+    private int randomShard() {
+        return ThreadLocalRandom.current().nextInt(counterShards);
+    }
+
+    private Map<String, AttributeValue> shardKey(int shard) {
+        return Map.of(
+                "statId", AttributeValue.builder().s(USER_COUNT).build(),
+                "shard", number(shard));
+    }
+
+    private AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.users.service;
+
+import com.ecommerce.users.cache.BloomFilter;
+import com.ecommerce.users.cache.EmailFilter;
+import com.ecommerce.users.model.User;
+import com.ecommerce.users.repository.ParallelScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Builds the email filter from a parallel scan at startup and rebuilds it periodically, which is
+// also what drops the bits of emails that have since been changed or deleted
+@Service
+public class EmailFilterRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailFilterRebuildJob.class);
+
+    private static final List<String> EMAIL_ATTRIBUTES = List.of("email");
+
+    private final ParallelScanner<User> userScanner;
+    private final EmailFilter emailFilter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public EmailFilterRebuildJob(ParallelScanner<User> userScanner, EmailFilter emailFilter) {
+        this.userScanner = userScanner;
+        this.emailFilter = emailFilter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    @Scheduled(fixedDelayString = "${users.email-filter.rebuild-interval-ms:21600000}",
+            initialDelayString = "${users.email-filter.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        BloomFilter filter = emailFilter.beginRebuild();
+        try {
+            long emails = userScanner.scan(EMAIL_ATTRIBUTES, user -> {
+                if (user.getEmail() != null) {
+                    filter.put(user.getEmail());
+                }
+            });
+            emailFilter.completeRebuild(filter, emails);
+            logger.info("Rebuilt email filter from {} users in {} ms", emails, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            emailFilter.abortRebuild();
+            logger.error("Email filter rebuild failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.users.service;
+
+import com.ecommerce.users.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Service
+public class UserCountReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCountReconciliationJob.class);
+
+    // Renewed while the scan runs, so it only has to outlast a page
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(5);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final UserStatsRepository userStatsRepository;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    public UserCountReconciliationJob(DynamoDbClient dynamoDbClient, UserStatsRepository userStatsRepository) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.userStatsRepository = userStatsRepository;
+    }
+
+    // Corrects drift between the maintained counter and the table, e.g. after writes made outside the
+    // repository. Users created or deleted while the scan runs move the counter, and the scan may or may
+    // not have seen each of them, so the counter is read on both sides of the scan and only drift that
+    // those writes can't explain is corrected.
+    @Scheduled(fixedDelayString = "${users.stats.reconcile-interval-ms:3600000}",
+               initialDelayString = "${users.stats.reconcile-initial-delay-ms:300000}")
+    public void reconcile() {
+        if (!userStatsRepository.tryAcquireReconcileLock(owner, LOCK_LEASE)) {
+            logger.debug("User count reconciliation is running on another instance");
+            return;
+        }
+
+        try {
+            long before = userStatsRepository.getUserCount();
+            long counted = countUsers();
+            long after = userStatsRepository.getUserCount();
+
+            // The drift is somewhere in this range; correct by the smallest amount in it
+            long minDrift = counted - Math.max(before, after);
+            long maxDrift = counted - Math.min(before, after);
+            long correction = minDrift > 0 ? minDrift : Math.min(maxDrift, 0);
+
+            if (correction != 0) {
+                userStatsRepository.adjustUserCount(correction);
+                logger.warn("User count drifted by {} (maintained: {} to {} during the scan, counted: {}), corrected",
+                        correction, before, after, counted);
+            } else {
+                logger.debug("User count is consistent: {}", counted);
+            }
+        } catch (Exception e) {
+            logger.error("User count reconciliation failed", e);
+        } finally {
+            userStatsRepository.releaseReconcileLock(owner);
+        }
+    }
+
+    private long countUsers() {
+        long count = 0;
+        long renewAt = System.nanoTime() + LOCK_LEASE.toNanos() / 3;
+        for (ScanResponse page : dynamoDbClient.scanPaginator(ScanRequest.builder()
+                .tableName("users")
+                .select(Select.COUNT)
+                .consistentRead(true)
+                .build())) {
+            count += page.count();
+            if (System.nanoTime() >= renewAt) {
+                if (!userStatsRepository.tryAcquireReconcileLock(owner, LOCK_LEASE)) {
+                    throw new IllegalStateException("Lost the user count reconciliation lock during the scan");
+                }
+                renewAt = System.nanoTime() + LOCK_LEASE.toNanos() / 3;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.users.service;
+
+import com.ecommerce.users.model.User;
+import com.ecommerce.users.repository.ParallelScanner;
+import com.ecommerce.users.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Backfills index attributes and role items for users written before those indexes existed. The
+// scan only finds the users; each one is reindexed from a consistent read of its stored attributes.
+@Service
+public class UserReindexJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserReindexJob.class);
+
+    private static final List<String> SCANNED_ATTRIBUTES = List.of("userId");
+
+    private final ParallelScanner<User> userScanner;
+    private final UserRepository userRepository;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public UserReindexJob(ParallelScanner<User> userScanner, UserRepository userRepository) {
+        this.userScanner = userScanner;
+        this.userRepository = userRepository;
+    }
+
+    // Returns false if a reindex is already running on this instance
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                long reindexed = userScanner.scan(SCANNED_ATTRIBUTES, user -> reindex(user.getUserId()));
+                logger.info("Reindexed {} users in {} ms", reindexed, System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                logger.error("User reindex failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    // A user changed on every attempt is skipped rather than failing the scan; a rerun picks it up
+    private void reindex(String userId) {
+        try {
+            userRepository.reindex(userId);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Skipped reindexing user {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.users.model;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The hand-built schemas must stay interchangeable with TableSchema.fromBean: the same item maps
+// both ways and the same attribute names, keys and indexes
+class UserSchemasTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-01-15T10:30:00Z");
+
+    @Test
+    void userSchemaMapsLikeTheBeanSchema() {
+        assertSameMapping(TableSchema.fromBean(User.class), UserSchemas.USER, fullUser());
+    }
+
+    @Test
+    void userSchemaMapsSparseUsersLikeTheBeanSchema() {
+        User user = new User();
+        user.setUserId("user-0002");
+        user.setDefaultAddress(null);
+
+        assertSameMapping(TableSchema.fromBean(User.class), UserSchemas.USER, user);
+    }
+
+    @Test
+    void userSchemaHasTheBeanSchemaKeysAndIndexes() {
+        assertSameStructure(TableSchema.fromBean(User.class), UserSchemas.USER);
+    }
+
+    @Test
+    void derivedAttributesFollowTheStoredSourceInAnyOrder() {
+        Map<String, AttributeValue> derivedFirst = new LinkedHashMap<>();
+        derivedFirst.put("createdBucket", AttributeValue.builder().s("2020-01").build());
+        derivedFirst.put("enabledStatus", AttributeValue.builder().s("ENABLED").build());
+        derivedFirst.put("userId", AttributeValue.builder().s("user-0003").build());
+        derivedFirst.put("createdAt", AttributeValue.builder().s("2026-01-15T10:30:00.000Z").build());
+        derivedFirst.put("enabled", AttributeValue.builder().bool(true).build());
+        Map<String, AttributeValue> derivedLast = new LinkedHashMap<>();
+        derivedFirst.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> derivedLast.put(entry.getKey(), entry.getValue()));
+
+        for (TableSchema<User> schema : List.of(TableSchema.fromBean(User.class), UserSchemas.USER)) {
+            for (Map<String, AttributeValue> item : List.of(derivedFirst, derivedLast)) {
+                User user = schema.mapToItem(item);
+                assertThat(user.getCreatedBucket()).isEqualTo("2026-01");
+                assertThat(user.getEnabledStatus()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void addressSchemaMapsLikeTheBeanSchema() {
+        Address address = new Address("1 Main Street", "Springfield", "IL", "62701", "US");
+
+        assertSameMapping(TableSchema.fromBean(Address.class), UserSchemas.ADDRESS, address);
+        assertSameStructure(TableSchema.fromBean(Address.class), UserSchemas.ADDRESS);
+    }
+
+    private static User fullUser() {
+        User user = new User("jane.doe@example.com", "Jane", "Doe", "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3rXXzE2NFx6e5i4EJ8dZ7Lq");
+        user.setUserId("user-0001");
+        user.setPhoneNumber("+1-555-0100");
+        user.addRole("CUSTOMER");
+        user.addRole("ADMIN");
+        user.setEnabled(false);
+        user.setEmailVerified(true);
+        user.setCreatedAt(CREATED_AT);
+        user.setUpdatedAt(CREATED_AT.plusSeconds(60));
+        user.setLastLoginAt(CREATED_AT.plusSeconds(120));
+        user.setProfileImageUrl("https://cdn.example.com/users/user-0001.jpg");
+        user.setDefaultAddress(new Address("1 Main Street", "Springfield", "IL", "62701", "US"));
+        user.setVersion(3L);
+        return user;
+    }
+
+    // Same item map from the item, and the same item when reading that map back. Null attributes are
+    // not applied on read, so a read item may carry constructor defaults the original didn't have.
+    private static <T> void assertSameMapping(TableSchema<T> bean, TableSchema<T> hand, T item) {
+        Map<String, AttributeValue> expected = new TreeMap<>(bean.itemToMap(item, false));
+
+        assertThat(new TreeMap<>(hand.itemToMap(item, false))).isEqualTo(expected);
+        Map<String, AttributeValue> readByBean = new TreeMap<>(bean.itemToMap(bean.mapToItem(expected), false));
+        assertThat(new TreeMap<>(bean.itemToMap(hand.mapToItem(expected), false))).isEqualTo(readByBean);
+        assertThat(new TreeMap<>(hand.itemToMap(hand.mapToItem(expected), false))).isEqualTo(readByBean);
+    }
+
+    private static void assertSameStructure(TableSchema<?> bean, TableSchema<?> hand) {
+        assertThat(hand.attributeNames()).containsExactlyInAnyOrderElementsOf(bean.attributeNames());
+        assertThat(indexKeys(hand)).isEqualTo(indexKeys(bean));
+    }
+
+    private static Map<String, String> indexKeys(TableSchema<?> schema) {
+        Map<String, String> keys = new TreeMap<>();
+        schema.tableMetadata().indices().forEach(index -> keys.put(index.name(),
+                index.partitionKey().map(key -> key.name()).orElse("") + "/"
+                        + index.sortKey().map(key -> key.name()).orElse("")));
+        return keys;
+    }
+}
@@ -16,11 +16,39 @@ resource "aws_dynamodb_table" "users" {
     type = "S"
   }
 
+  attribute {
+    name = "createdBucket"
+    type = "S"
+  }
+
+  attribute {
+    name = "createdAt"
+    type = "S"
+  }
+
+  attribute {
+    name = "enabledStatus"
+    type = "S"
+  }
+
   global_secondary_index {
     name     = "email-index"
     hash_key = "email"
   }
 
+  global_secondary_index {
+    name      = "created-index"
+    hash_key  = "createdBucket"
+    range_key = "createdAt"
+  }
+
+  # Sparse: only disabled users carry enabledStatus; enabled users are read with a filtered scan
+  global_secondary_index {
+    name      = "enabled-index"
+    hash_key  = "enabledStatus"
+    range_key = "createdAt"
+  }
+
   tags = {
     Name        = "users"
     Environment = var.environment
@@ -36,6 +64,70 @@ resource "aws_dynamodb_table" "users" {
   }
 }
 
+# User Roles Table (one item per user-role pair, maintained by the users service)
+resource "aws_dynamodb_table" "user_roles" {
+  name           = "user-roles"
+  billing_mode   = "PAY_PER_REQUEST"
+  hash_key       = "role"
+  range_key      = "userId"
+
+  attribute {
+    name = "role"
+    type = "S"
+  }
+
+  attribute {
+    name = "userId"
+    type = "S"
+  }
+
+  tags = {
+    Name        = "user-roles"
+    Environment = var.environment
+    Service     = "users-service"
+  }
+
+  point_in_time_recovery {
+    enabled = true
+  }
+
+  server_side_encryption {
+    enabled = true
+  }
+}
+
+# User Stats Table (sharded aggregate counters maintained by the users service)
+resource "aws_dynamodb_table" "user_stats" {
+  name           = "user-stats"
+  billing_mode   = "PAY_PER_REQUEST"
+  hash_key       = "statId"
+  range_key      = "shard"
+
+  attribute {
+    name = "statId"
+    type = "S"
+  }
+
+  attribute {
+    name = "shard"
+    type = "N"
+  }
+
+  tags = {
+    Name        = "user-stats"
+    Environment = var.environment
+    Service     = "users-service"
+  }
+
+  point_in_time_recovery {
+    enabled = true
+  }
+
+  server_side_encryption {
+    enabled = true
+  }
+}
+
 # Products Table
 resource "aws_dynamodb_table" "products" {
   name           = "products"
@@ -53,21 +145,62 @@ resource "aws_dynamodb_table" "products" {
   }
 
   attribute {
-    name = "name"
+    name = "sku"
     type = "S"
   }
 
+  attribute {
+    name = "createdAtMillis"
+    type = "N"
+  }
+
+  attribute {
+    name = "price"
+    type = "N"
+  }
+
+  attribute {
+    name = "rating"
+    type = "N"
+  }
+
+  # Category listings sorted by recency, price or rating; only the ProductSummary attributes (and
+  # active, which listings filter on) are projected.
+  # Name lookups are served by the search index, so name is no longer a key of any index.
+  global_secondary_index {
+    name               = "category-created-index"
+    hash_key           = "category"
+    range_key          = "createdAtMillis"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["name", "price", "originalPrice", "imageUrls", "rating", "stockQuantity", "active"]
+  }
+
   global_secondary_index {
-    name     = "category-index"
-    hash_key = "category"
-    range_key = "name"
+    name               = "category-price-index"
+    hash_key           = "category"
+    range_key          = "price"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["name", "originalPrice", "imageUrls", "rating", "stockQuantity", "active"]
   }
 
   global_secondary_index {
-    name     = "name-index"
-    hash_key = "name"
+    name               = "category-rating-index"
+    hash_key           = "category"
+    range_key          = "rating"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["name", "price", "originalPrice", "imageUrls", "stockQuantity", "active"]
   }
 
+  global_secondary_index {
+    name            = "sku-index"
+    hash_key        = "sku"
+    projection_type = "KEYS_ONLY"
+  }
+
+  # Consumed by the products service to keep the search index in sync
+  stream_enabled   = true
+  stream_view_type = "NEW_AND_OLD_IMAGES"
+
   tags = {
     Name        = "products"
     Environment = var.environment
@@ -83,6 +216,172 @@ resource "aws_dynamodb_table" "products" {
   }
 }
 
+# Product Stream Checkpoints Table (search index sync progress per stream shard)
+resource "aws_dynamodb_table" "product_stream_checkpoints" {
+  name           = "product-stream-checkpoints"
+  billing_mode   = "PAY_PER_REQUEST"
+  hash_key       = "shardId"
+
+  attribute {
+    name = "shardId"
+    type = "S"
+  }
+
+  ttl {
+    attribute_name = "expiresAt"
+    enabled        = true
+  }
+
+  tags = {
+    Name        = "product-stream-checkpoints"
+    Environment = var.environment
+    Service     = "products-service"
+  }
+
+  server_side_encryption {
+    enabled = true
+  }
+}
+
+# Product Stock Shards Table (split stock counters of hot products)
+resource "aws_dynamodb_table" "product_stock_shards" {
+  name           = "product-stock-shards"
+  billing_mode   = "PAY_PER_REQUEST"
+  hash_key       = "productId"
+  range_key      = "shard"
+
+  attribute {
+    name = "productId"
+    type = "S"
+  }
+
+  attribute {
+    name = "shard"
+    type = "N"
+  }
+
+  tags = {
+    Name        = "product-stock-shards"
+    Environment = var.environment
+    Service     = "products-service"
+  }
+
+  point_in_time_recovery {
+    enabled = true
+  }
+
+  server_side_encryption {
+    enabled = true
+  }
+}
+
+# Stock Leases Table (blocks of hot-product stock held by individual pods)
+resource "aws_dynamodb_table" "stock_leases" {
+  name           = "stock-leases"
+  billing_mode   = "PAY_PER_REQUEST"
+  hash_key       = "productId"
+  range_key      = "owner"
+
+  attribute {
+    name = "productId"
+    type = "S"
+  }
+
+  attribute {
+    name = "owner"
+    type = "S"
+  }
+
+  # Removes leases of pods that went away once they have been reclaimed
+  ttl {
+    attribute_name = "ttl"
+    enabled        = true
+  }
+
+  tags = {
+    Name        = "stock-leases"
+    Environment = var.environment
+    Service     = "products-service"
+  }
+
+  point_in_time_recovery {
+    enabled = true
+  }
+
+  server_side_encryption {
+    enabled = true
+  }
+}
+
+# Inventory Reservations Table (stock held for checkouts)
+resource "aws_dynamodb_table" "inventory_reservations" {
+  name           = "inventory-reservations"
+  billing_mode   = "PAY_PER_REQUEST"
+  hash_key       = "reservationId"
+
+  attribute {
+    name = "reservationId"
+    type = "S"
+  }
+
+  attribute {
+    name = "pendingShard"
+    type = "N"
+  }
+
+  attribute {
+    name = "expiresAt"
+    type = "N"
+  }
+
+  attribute {
+    name = "leaseOwner"
+    type = "S"
+  }
+
+  attribute {
+    name = "leaseSeq"
+    type = "N"
+  }
+
+  # Sparse: only PENDING reservations carry pendingShard, spread over several partitions
+  global_secondary_index {
+    name            = "pending-expiry-index"
+    hash_key        = "pendingShard"
+    range_key       = "expiresAt"
+    projection_type = "KEYS_ONLY"
+  }
+
+  # Sparse: only reservations served from a pod's stock lease, used to reclaim that lease safely
+  global_secondary_index {
+    name               = "lease-index"
+    hash_key           = "leaseOwner"
+    range_key          = "leaseSeq"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["stock"]
+  }
+
+  # Removes completed reservations once they are no longer needed; expiry itself is swept by the service
+  ttl {
+    attribute_name = "ttl"
+    enabled        = true
+  }
+
+  tags = {
+    Name        = "inventory-reservations"
+    Environment = var.environment
+    Service     = "products-service"
+  }
+
+  point_in_time_recovery {
+    enabled = true
+  }
+
+  server_side_encryption {
+    enabled = true
+  }
+}
+
 # Orders Table
 resource "aws_dynamodb_table" "orders" {
   name           = "orders"